@@ -1,16 +1,19 @@
 package com.erp.finance.config;
 
+import com.erp.finance.service.AuthTokenService;
+import com.erp.finance.web.BearerTokenFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -22,17 +25,22 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, AuthTokenService authTokenService,
+                                           UserDetailsService userDetailsService) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .httpBasic(httpBasic -> httpBasic.realmName("ERP Finance"))
+            // Bearer tokens from /api/auth/login skip the per-request BCrypt check of HTTP Basic
+            .addFilterBefore(new BearerTokenFilter(authTokenService, userDetailsService), BasicAuthenticationFilter.class)
             .headers(headers -> headers
                 .frameOptions(frame -> frame.sameOrigin())
             )
             .authorizeHttpRequests(auth -> auth
                 // H2 Console access
                 .requestMatchers("/h2-console/**").permitAll()
+                // Login checks the password itself
+                .requestMatchers("POST", "/api/auth/login").permitAll()
                 // Read-only endpoints - all roles can access
                 .requestMatchers("GET", "/api/accounts/**").hasAnyRole("SYSTEM_ADMIN", "ACCOUNTANT", "ACCOUNT_EXECUTIVE")
                 .requestMatchers("GET", "/api/journals/**").hasAnyRole("SYSTEM_ADMIN", "ACCOUNTANT", "ACCOUNT_EXECUTIVE")
@@ -42,6 +50,12 @@ public class SecurityConfig {
                 .requestMatchers("GET", "/api/ar/**").hasAnyRole("SYSTEM_ADMIN", "ACCOUNTANT", "ACCOUNT_EXECUTIVE")
                 .requestMatchers("GET", "/api/fixed-assets/**").hasAnyRole("SYSTEM_ADMIN", "ACCOUNTANT", "ACCOUNT_EXECUTIVE")
                 .requestMatchers("GET", "/api/reports/**").hasAnyRole("SYSTEM_ADMIN", "ACCOUNTANT", "ACCOUNT_EXECUTIVE")
+                // Report jobs only read the ledger - anyone who can read reports can run them; ReportJobService
+                // lets only the submitter, accountants and admins cancel one
+                .requestMatchers("POST", "/api/reports/jobs/**").hasAnyRole("SYSTEM_ADMIN", "ACCOUNTANT", "ACCOUNT_EXECUTIVE")
+                .requestMatchers("DELETE", "/api/reports/jobs/**").hasAnyRole("SYSTEM_ADMIN", "ACCOUNTANT", "ACCOUNT_EXECUTIVE")
+                // Audit trail - administrators and accountants
+                .requestMatchers("GET", "/api/audit/**").hasAnyRole("SYSTEM_ADMIN", "ACCOUNTANT")
                 // User management - only SYSTEM_ADMIN can access
                 .requestMatchers("/api/users/**").hasRole("SYSTEM_ADMIN")
                 // Write endpoints - only ACCOUNTANT can access
@@ -60,6 +74,9 @@ public class SecurityConfig {
                 .requestMatchers("POST", "/api/fixed-assets/**").hasRole("ACCOUNTANT")
                 .requestMatchers("PUT", "/api/fixed-assets/**").hasRole("ACCOUNTANT")
                 .requestMatchers("DELETE", "/api/fixed-assets/**").hasRole("ACCOUNTANT")
+                .requestMatchers("POST", "/api/gl/**").hasRole("ACCOUNTANT")
+                // Closing a period locks it for good
+                .requestMatchers("POST", "/api/periods/**").hasRole("ACCOUNTANT")
                 .requestMatchers("POST", "/api/budgets/**").hasRole("ACCOUNTANT")
                 .requestMatchers("PUT", "/api/budgets/**").hasRole("ACCOUNTANT")
                 .requestMatchers("DELETE", "/api/budgets/**").hasRole("ACCOUNTANT")
@@ -69,27 +86,17 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Verifies username and password at /api/auth/login, against the users table
+     * (DatabaseUserDetailsService, which HTTP Basic uses too)
+     */
     @Bean
-    public UserDetailsService userDetailsService() {
-        UserDetails systemAdmin = User.builder()
-            .username("sysadmin")
-            .password(passwordEncoder().encode("sysadmin123"))
-            .roles("SYSTEM_ADMIN")
-            .build();
-
-        UserDetails accountant = User.builder()
-            .username("admin")
-            .password(passwordEncoder().encode("admin123"))
-            .roles("ACCOUNTANT")
-            .build();
-
-        UserDetails accountExecutive = User.builder()
-            .username("viewer")
-            .password(passwordEncoder().encode("viewer123"))
-            .roles("ACCOUNT_EXECUTIVE")
-            .build();
-
-        return new InMemoryUserDetailsManager(systemAdmin, accountant, accountExecutive);
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService,
+                                                       PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        return new ProviderManager(provider);
     }
 
     @Bean
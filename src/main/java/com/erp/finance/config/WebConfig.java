@@ -1,17 +1,35 @@
 package com.erp.finance.config;
 
+import com.erp.finance.web.AuditInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    private final AuditInterceptor auditInterceptor;
+    private final List<String> auditPaths;
+
+    public WebConfig(AuditInterceptor auditInterceptor,
+                     @Value("${erp.audit.paths:/api/journals/**,/api/ap/**,/api/ar/**,/api/fixed-assets/**,/api/budgets/**}")
+                     List<String> auditPaths) {
+        this.auditInterceptor = auditInterceptor;
+        this.auditPaths = auditPaths;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(auditInterceptor).addPathPatterns(auditPaths);
+    }
 
     @Override
     public void addCorsMappings(CorsRegistry registry) {
@@ -0,0 +1,56 @@
+package com.erp.finance.controller;
+
+import com.erp.finance.domain.AccountingPeriod;
+import com.erp.finance.domain.ClosedPeriodBalance;
+import com.erp.finance.service.PeriodCloseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/periods")
+@CrossOrigin(origins = "http://localhost:4200", allowCredentials = "true")
+public class AccountingPeriodController {
+    
+    @Autowired
+    private PeriodCloseService periodCloseService;
+    
+    @GetMapping
+    public ResponseEntity<List<AccountingPeriod>> getAllPeriods() {
+        return ResponseEntity.ok(periodCloseService.getAllPeriods());
+    }
+    
+    @GetMapping("/{period}")
+    public ResponseEntity<AccountingPeriod> getPeriod(@PathVariable String period) {
+        return periodCloseService.getPeriod(period)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Frozen per-account aggregates of a closed period.
+     */
+    @GetMapping("/{period}/balances")
+    public ResponseEntity<List<ClosedPeriodBalance>> getClosedBalances(@PathVariable String period) {
+        return ResponseEntity.ok(periodCloseService.getClosedBalances(period));
+    }
+    
+    /**
+     * Validate, post the closing entry, freeze aggregates and lock the period.
+     */
+    @PostMapping("/{period}/close")
+    public ResponseEntity<?> closePeriod(@PathVariable String period) {
+        try {
+            return ResponseEntity.ok(periodCloseService.closePeriod(period));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Period must be YYYY-MM"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.erp.finance.controller;
 
+import com.erp.finance.service.AccountLedgerService;
 import com.erp.finance.service.FinancialReportService;
+import com.erp.finance.service.ReportCache;
+import com.erp.finance.web.NdjsonStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,30 +24,43 @@ public class FinancialReportController {
     @Autowired
     private FinancialReportService reportService;
     
+    @Autowired
+    private AccountLedgerService accountLedgerService;
+    
+    @Autowired
+    private ReportCache reportCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @GetMapping("/income-statement")
     public ResponseEntity<Map<String, Object>> getIncomeStatement(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return ResponseEntity.ok(reportService.generateIncomeStatement(startDate, endDate));
+        return ResponseEntity.ok(reportCache.get("income-statement", startDate, endDate, List.of(),
+                () -> reportService.generateIncomeStatement(startDate, endDate)));
     }
     
     @GetMapping("/balance-sheet")
     public ResponseEntity<Map<String, Object>> getBalanceSheet(
             @RequestParam("asOfDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
-        return ResponseEntity.ok(reportService.generateBalanceSheet(asOfDate));
+        return ResponseEntity.ok(reportCache.get("balance-sheet", null, asOfDate, List.of(),
+                () -> reportService.generateBalanceSheet(asOfDate)));
     }
     
     @GetMapping("/trial-balance")
     public ResponseEntity<Map<String, Object>> getTrialBalance(
             @RequestParam("asOfDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
-        return ResponseEntity.ok(reportService.generateTrialBalance(asOfDate));
+        return ResponseEntity.ok(reportCache.get("trial-balance", null, asOfDate, List.of(),
+                () -> reportService.generateTrialBalance(asOfDate)));
     }
     
     @GetMapping("/cash-flow")
     public ResponseEntity<Map<String, Object>> getCashFlowStatement(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return ResponseEntity.ok(reportService.generateCashFlowStatement(startDate, endDate));
+        return ResponseEntity.ok(reportCache.get("cash-flow", startDate, endDate, List.of(),
+                () -> reportService.generateCashFlowStatement(startDate, endDate)));
     }
     
     @GetMapping("/account-ledger/{accountId}")
@@ -48,6 +68,59 @@ public class FinancialReportController {
             @PathVariable Long accountId,
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return ResponseEntity.ok(reportService.generateAccountLedger(accountId, startDate, endDate));
+        // the opening balance reads everything before startDate
+        return ResponseEntity.ok(reportCache.get("account-ledger", null, endDate, List.of(accountId, startDate),
+                () -> reportService.generateAccountLedger(accountId, startDate, endDate)));
+    }
+    
+    @GetMapping("/cache/stats")
+    public Map<String, Object> getCacheStats() {
+        return reportCache.stats();
+    }
+    
+    /**
+     * Ledger page after the (afterDate, afterLineId) cursor; follow "next" for the rest.
+     */
+    @GetMapping("/account-ledger/{accountId}/page")
+    public ResponseEntity<Map<String, Object>> getAccountLedgerPage(
+            @PathVariable Long accountId,
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(value = "afterDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+            @RequestParam(value = "afterLineId", required = false) Long afterLineId,
+            @RequestParam(value = "afterBalance", required = false) BigDecimal afterBalance,
+            @RequestParam(value = "openingBalance", required = false) BigDecimal openingBalance,
+            @RequestParam(value = "limit", defaultValue = "" + AccountLedgerService.DEFAULT_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(accountLedgerService.getLedgerPage(accountId, startDate, endDate,
+                afterDate, afterLineId, afterBalance, openingBalance, limit));
+    }
+    
+    /**
+     * Ledger rows with running balance as NDJSON, read page by page.
+     */
+    @GetMapping(value = "/account-ledger/{accountId}/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAccountLedger(
+            @PathVariable Long accountId,
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        StreamingResponseBody body = out -> {
+            Map<String, Object> page = accountLedgerService.getLedgerPage(accountId, startDate, endDate,
+                    null, null, null, null, AccountLedgerService.MAX_PAGE_SIZE);
+            while (true) {
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> rows = (List<Map<String, Object>>) page.get("transactions");
+                for (Map<String, Object> row : rows) {
+                    out.write(objectMapper.writeValueAsBytes(row));
+                    out.write('\n');
+                }
+                out.flush();
+                Map<String, Object> next = AccountLedgerService.nextCursor(page);
+                if (next == null) break;
+                // the cursor carries the running balance, so later pages only read their own rows
+                page = accountLedgerService.getLedgerPage(accountId, startDate, endDate, next,
+                        AccountLedgerService.MAX_PAGE_SIZE);
+            }
+        };
+        return ResponseEntity.ok().contentType(NdjsonStream.MEDIA_TYPE).body(body);
     }
 }
@@ -1,6 +1,8 @@
 package com.erp.finance.controller;
 
+import com.erp.finance.domain.DepreciationRun;
 import com.erp.finance.domain.FixedAsset;
+import com.erp.finance.service.DepreciationRunService;
 import com.erp.finance.service.FixedAssetService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,9 +17,11 @@ import java.util.Map;
 public class FixedAssetController {
     
     private final FixedAssetService fixedAssetService;
+    private final DepreciationRunService depreciationRunService;
     
-    public FixedAssetController(FixedAssetService fixedAssetService) {
+    public FixedAssetController(FixedAssetService fixedAssetService, DepreciationRunService depreciationRunService) {
         this.fixedAssetService = fixedAssetService;
+        this.depreciationRunService = depreciationRunService;
     }
     
     @GetMapping
@@ -60,4 +64,32 @@ public class FixedAssetController {
         fixedAssetService.disposeAsset(id, date, amount);
         return ResponseEntity.ok().build();
     }
+    
+    /**
+     * Start or resume the month-end depreciation run, e.g. {"period": "2024-01", "date": "2024-01-31"}.
+     * The run continues in the background; poll GET /depreciation-runs/{period} for progress.
+     */
+    @PostMapping("/depreciation-runs")
+    public ResponseEntity<?> startDepreciationRun(@RequestBody Map<String, String> request) {
+        try {
+            String date = request.get("date");
+            DepreciationRun run = depreciationRunService.startRun(request.get("period"),
+                    date != null ? LocalDate.parse(date) : null);
+            return ResponseEntity.accepted().body(run);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage() != null ? e.getMessage() : "Invalid request"));
+        }
+    }
+    
+    @GetMapping("/depreciation-runs")
+    public List<DepreciationRun> getDepreciationRuns() {
+        return depreciationRunService.getAllRuns();
+    }
+    
+    @GetMapping("/depreciation-runs/{period}")
+    public ResponseEntity<DepreciationRun> getDepreciationRun(@PathVariable String period) {
+        return depreciationRunService.getRun(period)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -0,0 +1,112 @@
+package com.erp.finance.controller;
+
+import com.erp.finance.domain.ReportJob;
+import com.erp.finance.service.ReportJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background report runs: submit, poll status and progress, download the result, cancel.
+ */
+@RestController
+@RequestMapping("/api/reports/jobs")
+@CrossOrigin(origins = "http://localhost:4200", allowCredentials = "true")
+public class ReportJobController {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    /**
+     * Queue a report, e.g. {"reportType": "balance-sheet", "parameters": {"asOfDate": "2024-12-31"}}.
+     * Parameters are the query parameters of the matching /api/reports endpoint (accountId
+     * too for account-ledger).
+     */
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestBody ReportJobRequest request, Authentication authentication) {
+        try {
+            ReportJob job = reportJobService.submit(request.getReportType(), request.getParameters(),
+                authentication != null ? authentication.getName() : null);
+            return ResponseEntity.accepted().location(URI.create("/api/reports/jobs/" + job.getId())).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Report queue is full"));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReportJob>> getRecentJobs() {
+        return ResponseEntity.ok(reportJobService.getRecentJobs());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJob> getJob(@PathVariable Long id) {
+        return reportJobService.getJob(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * The report as JSON once the job is DONE; 409 with the job status before that.
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> getResult(@PathVariable Long id) {
+        Optional<ReportJob> job = reportJobService.getJob(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.get().getStatus() != ReportJob.JobStatus.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Report is not ready", "status", job.get().getStatus()));
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("Content-Disposition", "attachment; filename=\"" + job.get().getReportType() + "-" + id + ".json\"")
+            .body(reportJobService.getResult(id));
+    }
+
+    /**
+     * Cancel a job. Only the user who submitted it, an accountant or an administrator may.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@PathVariable Long id, Authentication authentication) {
+        if (reportJobService.getJob(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            if (!reportJobService.cancel(id, authentication)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Job has already finished"));
+            }
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", e.getMessage()));
+        }
+        return ResponseEntity.ok(reportJobService.getJob(id).orElse(null));
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return reportJobService.stats();
+    }
+
+    public static class ReportJobRequest {
+        private String reportType;
+        private Map<String, String> parameters;
+
+        public String getReportType() { return reportType; }
+        public void setReportType(String reportType) { this.reportType = reportType; }
+
+        public Map<String, String> getParameters() { return parameters; }
+        public void setParameters(Map<String, String> parameters) { this.parameters = parameters; }
+    }
+}
@@ -1,6 +1,8 @@
 package com.erp.finance.controller;
 
 import com.erp.finance.domain.User;
+import com.erp.finance.service.DatabaseUserDetailsService;
+import com.erp.finance.service.UserActivityTracker;
 import com.erp.finance.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -18,6 +20,12 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private DatabaseUserDetailsService userDetailsService;
+    
+    @Autowired
+    private UserActivityTracker activityTracker;
+    
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers() {
         // Remove password from response
@@ -105,4 +113,20 @@ public class UserController {
         users.forEach(user -> user.setPassword(null));
         return ResponseEntity.ok(users);
     }
+    
+    /**
+     * Hit rate of the cache authentication resolves users from
+     */
+    @GetMapping("/cache/stats")
+    public Map<String, Object> getUserCacheStats() {
+        return userDetailsService.stats();
+    }
+    
+    /**
+     * Last-login/last-seen times waiting for the next batched write
+     */
+    @GetMapping("/activity/stats")
+    public Map<String, Object> getActivityStats() {
+        return activityTracker.stats();
+    }
 }
@@ -8,7 +8,8 @@ import java.time.LocalDate;
 @Table(name = "ap_invoices")
 public class APInvoice {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ap_invoices_seq")
+    @SequenceGenerator(name = "ap_invoices_seq", sequenceName = "ap_invoices_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -8,7 +8,8 @@ import java.time.LocalDate;
 @Table(name = "ap_payments")
 public class APPayment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ap_payments_seq")
+    @SequenceGenerator(name = "ap_payments_seq", sequenceName = "ap_payments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
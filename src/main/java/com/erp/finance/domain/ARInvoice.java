@@ -8,7 +8,8 @@ import java.time.LocalDate;
 @Table(name = "ar_invoices")
 public class ARInvoice {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ar_invoices_seq")
+    @SequenceGenerator(name = "ar_invoices_seq", sequenceName = "ar_invoices_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -7,7 +7,8 @@ import java.math.BigDecimal;
 @Table(name = "ar_invoice_items")
 public class ARInvoiceItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ar_invoice_items_seq")
+    @SequenceGenerator(name = "ar_invoice_items_seq", sequenceName = "ar_invoice_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
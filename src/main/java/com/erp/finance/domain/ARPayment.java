@@ -8,7 +8,8 @@ import java.time.LocalDate;
 @Table(name = "ar_payments")
 public class ARPayment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ar_payments_seq")
+    @SequenceGenerator(name = "ar_payments_seq", sequenceName = "ar_payments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
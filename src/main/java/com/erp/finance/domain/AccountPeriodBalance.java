@@ -0,0 +1,54 @@
+package com.erp.finance.domain;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Running debit/credit totals of POSTED journal lines per account and period (YYYY-MM).
+ * Maintained by PostingService so the trial balance never has to rescan journal lines.
+ */
+@Entity
+@Table(name = "account_period_balance",
+       uniqueConstraints = @UniqueConstraint(name = "uk_account_period_balance", columnNames = {"account_id", "period"}))
+public class AccountPeriodBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_period_balance_seq")
+    @SequenceGenerator(name = "account_period_balance_seq", sequenceName = "account_period_balance_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, length = 7)
+    private String period; // e.g., YYYY-MM
+
+    @Column(nullable = false)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+
+    public AccountPeriodBalance() {}
+
+    public AccountPeriodBalance(Long accountId, String period, BigDecimal debitTotal, BigDecimal creditTotal) {
+        this.accountId = accountId;
+        this.period = period;
+        this.debitTotal = debitTotal;
+        this.creditTotal = creditTotal;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public BigDecimal getDebitTotal() { return debitTotal; }
+    public void setDebitTotal(BigDecimal debitTotal) { this.debitTotal = debitTotal; }
+
+    public BigDecimal getCreditTotal() { return creditTotal; }
+    public void setCreditTotal(BigDecimal creditTotal) { this.creditTotal = creditTotal; }
+}
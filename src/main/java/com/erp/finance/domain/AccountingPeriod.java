@@ -0,0 +1,70 @@
+package com.erp.finance.domain;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An accounting period (YYYY-MM). Once a period is closed it, and every period
+ * before it, no longer accepts postings; its per-account aggregates are frozen in
+ * ClosedPeriodBalance. OPEN rows exist so postings and closes can lock the period.
+ */
+@Entity
+@Table(name = "accounting_periods",
+       uniqueConstraints = @UniqueConstraint(name = "uk_accounting_period", columnNames = {"period"}))
+public class AccountingPeriod {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounting_periods_seq")
+    @SequenceGenerator(name = "accounting_periods_seq", sequenceName = "accounting_periods_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PeriodStatus status = PeriodStatus.OPEN;
+
+    // trial balance totals of the period before closing entries
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalDebit = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalCredit = BigDecimal.ZERO;
+
+    // revenue less expenses, transferred to retained earnings
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal netIncome = BigDecimal.ZERO;
+
+    private Long closingJournalId;
+
+    private LocalDateTime closedAt;
+
+    public enum PeriodStatus {
+        OPEN, CLOSED
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public PeriodStatus getStatus() { return status; }
+    public void setStatus(PeriodStatus status) { this.status = status; }
+
+    public BigDecimal getTotalDebit() { return totalDebit; }
+    public void setTotalDebit(BigDecimal totalDebit) { this.totalDebit = totalDebit; }
+
+    public BigDecimal getTotalCredit() { return totalCredit; }
+    public void setTotalCredit(BigDecimal totalCredit) { this.totalCredit = totalCredit; }
+
+    public BigDecimal getNetIncome() { return netIncome; }
+    public void setNetIncome(BigDecimal netIncome) { this.netIncome = netIncome; }
+
+    public Long getClosingJournalId() { return closingJournalId; }
+    public void setClosingJournalId(Long closingJournalId) { this.closingJournalId = closingJournalId; }
+
+    public LocalDateTime getClosedAt() { return closedAt; }
+    public void setClosedAt(LocalDateTime closedAt) { this.closedAt = closedAt; }
+}
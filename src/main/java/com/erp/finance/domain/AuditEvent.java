@@ -0,0 +1,67 @@
+package com.erp.finance.domain;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One successful change to a financial record: who made it, when, and which request.
+ * Rows are only ever inserted, in batches by AuditTrail.
+ */
+@Entity
+@Table(name = "audit_events", indexes = {
+        @Index(name = "idx_audit_entity", columnList = "entityType, entityId"),
+        @Index(name = "idx_audit_occurred_at", columnList = "occurredAt")
+})
+public class AuditEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_events_seq")
+    @SequenceGenerator(name = "audit_events_seq", sequenceName = "audit_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(nullable = false, length = 100)
+    private String username;
+
+    // e.g. "POST /api/journals/{id}/approve"
+    @Column(nullable = false, length = 200)
+    private String action;
+
+    // e.g. "journals", "ap/invoices"
+    @Column(nullable = false, length = 60)
+    private String entityType;
+
+    @Column(length = 60)
+    private String entityId;
+
+    @Column(nullable = false)
+    private Integer httpStatus;
+
+    @Column(length = 1000)
+    private String details;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public String getEntityId() { return entityId; }
+    public void setEntityId(String entityId) { this.entityId = entityId; }
+
+    public Integer getHttpStatus() { return httpStatus; }
+    public void setHttpStatus(Integer httpStatus) { this.httpStatus = httpStatus; }
+
+    public String getDetails() { return details; }
+    public void setDetails(String details) { this.details = details; }
+}
@@ -8,7 +8,8 @@ import java.math.BigDecimal;
 public class BudgetLine {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "budget_lines_seq")
+    @SequenceGenerator(name = "budget_lines_seq", sequenceName = "budget_lines_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,66 @@
+package com.erp.finance.domain;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Frozen aggregates of one account for a closed period. Written once when the period is
+ * closed and never updated, so reports for closed periods read these instead of lines.
+ */
+@Entity
+@Table(name = "closed_period_balances",
+       uniqueConstraints = @UniqueConstraint(name = "uk_closed_period_balance", columnNames = {"period", "account_id"}))
+public class ClosedPeriodBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "closed_period_balances_seq")
+    @SequenceGenerator(name = "closed_period_balances_seq", sequenceName = "closed_period_balances_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    // period activity including the closing entry
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal debitTotal = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal creditTotal = BigDecimal.ZERO;
+
+    // the closing entry's share of the totals above
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal closingDebit = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal closingCredit = BigDecimal.ZERO;
+
+    // cumulative debit minus credit through the end of the period, after closing
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal endingBalance = BigDecimal.ZERO;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public Long getAccountId() { return accountId; }
+    public void setAccountId(Long accountId) { this.accountId = accountId; }
+
+    public BigDecimal getDebitTotal() { return debitTotal; }
+    public void setDebitTotal(BigDecimal debitTotal) { this.debitTotal = debitTotal; }
+
+    public BigDecimal getCreditTotal() { return creditTotal; }
+    public void setCreditTotal(BigDecimal creditTotal) { this.creditTotal = creditTotal; }
+
+    public BigDecimal getClosingDebit() { return closingDebit; }
+    public void setClosingDebit(BigDecimal closingDebit) { this.closingDebit = closingDebit; }
+
+    public BigDecimal getClosingCredit() { return closingCredit; }
+    public void setClosingCredit(BigDecimal closingCredit) { this.closingCredit = closingCredit; }
+
+    public BigDecimal getEndingBalance() { return endingBalance; }
+    public void setEndingBalance(BigDecimal endingBalance) { this.endingBalance = endingBalance; }
+}
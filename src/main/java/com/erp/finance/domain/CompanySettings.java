@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class CompanySettings {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_settings_seq")
+    @SequenceGenerator(name = "company_settings_seq", sequenceName = "company_settings_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -0,0 +1,110 @@
+package com.erp.finance.domain;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Month-end depreciation of all ACTIVE assets for one period (YYYY-MM). Progress is saved
+ * after every chunk of assets, so a run that stops part way resumes from lastAssetId.
+ */
+@Entity
+@Table(name = "depreciation_runs",
+       uniqueConstraints = @UniqueConstraint(name = "uk_depreciation_run_period", columnNames = {"period"}))
+public class DepreciationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "depreciation_runs_seq")
+    @SequenceGenerator(name = "depreciation_runs_seq", sequenceName = "depreciation_runs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 7)
+    private String period;
+
+    @Column(nullable = false)
+    private LocalDate depreciationDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RunStatus status = RunStatus.RUNNING;
+
+    // highest asset id already processed
+    @Column(nullable = false)
+    private Long lastAssetId = 0L;
+
+    @Column(nullable = false)
+    private Integer assetsDepreciated = 0;
+
+    @Column(nullable = false)
+    private Integer assetsSkipped = 0;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "depreciation_run_totals", joinColumns = @JoinColumn(name = "run_id"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "category")
+    @Column(name = "amount", precision = 15, scale = 2)
+    private Map<FixedAsset.AssetCategory, BigDecimal> categoryTotals = new HashMap<>();
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "depreciation_run_journals", joinColumns = @JoinColumn(name = "run_id"))
+    @Column(name = "journal_id")
+    private List<Long> journalIds = new ArrayList<>();
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    public enum RunStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public LocalDate getDepreciationDate() { return depreciationDate; }
+    public void setDepreciationDate(LocalDate depreciationDate) { this.depreciationDate = depreciationDate; }
+
+    public RunStatus getStatus() { return status; }
+    public void setStatus(RunStatus status) { this.status = status; }
+
+    public Long getLastAssetId() { return lastAssetId; }
+    public void setLastAssetId(Long lastAssetId) { this.lastAssetId = lastAssetId; }
+
+    public Integer getAssetsDepreciated() { return assetsDepreciated; }
+    public void setAssetsDepreciated(Integer assetsDepreciated) { this.assetsDepreciated = assetsDepreciated; }
+
+    public Integer getAssetsSkipped() { return assetsSkipped; }
+    public void setAssetsSkipped(Integer assetsSkipped) { this.assetsSkipped = assetsSkipped; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    public Map<FixedAsset.AssetCategory, BigDecimal> getCategoryTotals() { return categoryTotals; }
+    public void setCategoryTotals(Map<FixedAsset.AssetCategory, BigDecimal> categoryTotals) { this.categoryTotals = categoryTotals; }
+
+    public List<Long> getJournalIds() { return journalIds; }
+    public void setJournalIds(List<Long> journalIds) { this.journalIds = journalIds; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
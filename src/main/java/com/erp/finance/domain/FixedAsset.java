@@ -9,7 +9,8 @@ import java.time.LocalDate;
 public class FixedAsset {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fixed_assets_seq")
+    @SequenceGenerator(name = "fixed_assets_seq", sequenceName = "fixed_assets_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -57,6 +58,9 @@ public class FixedAsset {
     @Column(name = "account_id")
     private Long accountId;  // Link to GL account
     
+    @Column(name = "last_depreciation_period", length = 7)
+    private String lastDepreciationPeriod;  // YYYY-MM of the latest depreciation charged
+    
     public enum AssetCategory {
         BUILDING,
         EQUIPMENT,
@@ -208,4 +212,12 @@ public class FixedAsset {
     public void setAccountId(Long accountId) {
         this.accountId = accountId;
     }
+
+    public String getLastDepreciationPeriod() {
+        return lastDepreciationPeriod;
+    }
+
+    public void setLastDepreciationPeriod(String lastDepreciationPeriod) {
+        this.lastDepreciationPeriod = lastDepreciationPeriod;
+    }
 }
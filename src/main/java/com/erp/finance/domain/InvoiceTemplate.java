@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class InvoiceTemplate {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_templates_seq")
+    @SequenceGenerator(name = "invoice_templates_seq", sequenceName = "invoice_templates_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
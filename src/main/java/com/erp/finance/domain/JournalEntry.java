@@ -10,7 +10,8 @@ import java.util.List;
 @Table(name = "journals")
 public class JournalEntry {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journals_seq")
+    @SequenceGenerator(name = "journals_seq", sequenceName = "journals_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -23,6 +24,13 @@ public class JournalEntry {
     @Column(nullable = false)
     private JournalStatus status = JournalStatus.DRAFT;
 
+    // Position in the posting order, assigned by PostingSequencer when the journal is posted
+    @Column(name = "posting_sequence", unique = true)
+    private Long postingSequence;
+
+    // Set on the entry that transfers a closed period's income to retained earnings
+    private Boolean closingEntry;
+
     @OneToMany(mappedBy = "journal", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
     @JsonManagedReference
     private List<JournalLine> lines = new ArrayList<>();
@@ -39,6 +47,12 @@ public class JournalEntry {
     public JournalStatus getStatus() { return status; }
     public void setStatus(JournalStatus status) { this.status = status; }
 
+    public Long getPostingSequence() { return postingSequence; }
+    public void setPostingSequence(Long postingSequence) { this.postingSequence = postingSequence; }
+
+    public Boolean getClosingEntry() { return closingEntry; }
+    public void setClosingEntry(Boolean closingEntry) { this.closingEntry = closingEntry; }
+
     public List<JournalLine> getLines() { return lines; }
     public void setLines(List<JournalLine> lines) { this.lines = lines; }
 }
@@ -5,10 +5,12 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "journal_lines")
+@Table(name = "journal_lines",
+       indexes = @Index(name = "idx_journal_lines_account", columnList = "account_id, journal_id"))
 public class JournalLine {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "journal_lines_seq")
+    @SequenceGenerator(name = "journal_lines_seq", sequenceName = "journal_lines_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
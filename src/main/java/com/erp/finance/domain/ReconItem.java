@@ -8,7 +8,8 @@ import java.time.LocalDate;
 @Table(name = "recon_items")
 public class ReconItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recon_items_seq")
+    @SequenceGenerator(name = "recon_items_seq", sequenceName = "recon_items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
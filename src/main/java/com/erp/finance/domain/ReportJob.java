@@ -0,0 +1,89 @@
+package com.erp.finance.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A report run in the background. Clients poll its status and progress and download the
+ * result, stored as JSON, once it is DONE.
+ */
+@Entity
+@Table(name = "report_jobs", indexes = @Index(name = "idx_report_job_status", columnList = "status"))
+public class ReportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "report_jobs_seq")
+    @SequenceGenerator(name = "report_jobs_seq", sequenceName = "report_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String reportType;
+
+    // request parameters as JSON
+    @Column(nullable = false, length = 1000)
+    private String parameters;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status = JobStatus.QUEUED;
+
+    // 0-100
+    @Column(nullable = false)
+    private Integer progress = 0;
+
+    @Column(length = 1000)
+    private String error;
+
+    @JsonIgnore
+    @Basic(fetch = FetchType.LAZY)
+    @Column(columnDefinition = "TEXT")
+    private String result;
+
+    // username of whoever submitted the job
+    @Column(length = 50)
+    private String submittedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    public enum JobStatus {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getReportType() { return reportType; }
+    public void setReportType(String reportType) { this.reportType = reportType; }
+
+    public String getParameters() { return parameters; }
+    public void setParameters(String parameters) { this.parameters = parameters; }
+
+    public JobStatus getStatus() { return status; }
+    public void setStatus(JobStatus status) { this.status = status; }
+
+    public Integer getProgress() { return progress; }
+    public void setProgress(Integer progress) { this.progress = progress; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public String getResult() { return result; }
+    public void setResult(String result) { this.result = result; }
+
+    public String getSubmittedBy() { return submittedBy; }
+    public void setSubmittedBy(String submittedBy) { this.submittedBy = submittedBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
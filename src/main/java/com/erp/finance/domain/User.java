@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class User {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -41,6 +42,9 @@ public class User {
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
     
+    @Column(name = "last_seen")
+    private LocalDateTime lastSeen;
+    
     private String department;
     
     private String notes;
@@ -152,6 +156,14 @@ public class User {
         this.lastLogin = lastLogin;
     }
     
+    public LocalDateTime getLastSeen() {
+        return lastSeen;
+    }
+    
+    public void setLastSeen(LocalDateTime lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+    
     public String getDepartment() {
         return department;
     }
@@ -8,7 +8,8 @@ import java.time.LocalDate;
 @Table(name = "vendors")
 public class Vendor {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vendors_seq")
+    @SequenceGenerator(name = "vendors_seq", sequenceName = "vendors_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
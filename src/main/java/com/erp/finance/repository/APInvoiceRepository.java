@@ -1,7 +1,10 @@
 package com.erp.finance.repository;
 
 import com.erp.finance.domain.APInvoice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,14 @@ import java.util.List;
 public interface APInvoiceRepository extends CrudRepository<APInvoice, Long> {
     List<APInvoice> findByVendorId(Long vendorId);
     boolean existsByInvoiceNumber(String invoiceNumber);
+
+    // Rows: [APInvoice invoice, String vendorName]
+    @Query("SELECT i, c.name FROM APInvoice i LEFT JOIN Vendor c ON c.id = i.vendorId ORDER BY i.id")
+    List<Object[]> findAllWithVendorName();
+
+    // Keyset page after the cursor id; null filters match any invoice
+    @Query("SELECT i, c.name FROM APInvoice i LEFT JOIN Vendor c ON c.id = i.vendorId WHERE i.id > :after " +
+           "AND (:vendorId IS NULL OR i.vendorId = :vendorId) AND (:status IS NULL OR i.status = :status) ORDER BY i.id")
+    List<Object[]> findPageWithVendorName(@Param("after") Long after, @Param("vendorId") Long vendorId,
+                                          @Param("status") APInvoice.InvoiceStatus status, Pageable page);
 }
@@ -1,7 +1,10 @@
 package com.erp.finance.repository;
 
 import com.erp.finance.domain.ARInvoice;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,18 @@ import java.util.List;
 public interface ARInvoiceRepository extends CrudRepository<ARInvoice, Long> {
     List<ARInvoice> findByCustomerId(Long customerId);
     boolean existsByInvoiceNumber(String invoiceNumber);
+
+    // Rows: [ARInvoice invoice, String customerName]
+    @Query("SELECT i, c.name FROM ARInvoice i LEFT JOIN Customer c ON c.id = i.customerId ORDER BY i.id")
+    List<Object[]> findAllWithCustomerName();
+
+    // Keyset page after the cursor id; null filters match any invoice
+    @Query("SELECT i, c.name FROM ARInvoice i LEFT JOIN Customer c ON c.id = i.customerId WHERE i.id > :after " +
+           "AND (:customerId IS NULL OR i.customerId = :customerId) AND (:status IS NULL OR i.status = :status) ORDER BY i.id")
+    List<Object[]> findPageWithCustomerName(@Param("after") Long after, @Param("customerId") Long customerId,
+                                            @Param("status") ARInvoice.InvoiceStatus status, Pageable page);
+
+    // Rows: [Long id, Long customerId, LocalDate dueDate, BigDecimal balance] of invoices not fully paid
+    @Query("SELECT i.id, i.customerId, i.dueDate, i.balance FROM ARInvoice i WHERE i.balance <> 0")
+    List<Object[]> findOpenBalances();
 }
@@ -0,0 +1,12 @@
+package com.erp.finance.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection of summed journal line activity for one account.
+ */
+public interface AccountActivity {
+    Long getAccountId();
+    BigDecimal getDebitTotal();
+    BigDecimal getCreditTotal();
+}
@@ -0,0 +1,33 @@
+package com.erp.finance.repository;
+
+import com.erp.finance.domain.AccountPeriodBalance;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccountPeriodBalanceRepository extends CrudRepository<AccountPeriodBalance, Long> {
+    List<AccountPeriodBalance> findByPeriod(String period);
+
+    // Rows: [AccountType type, BigDecimal debitTotal, BigDecimal creditTotal]
+    @Query("SELECT a.type, SUM(b.debitTotal), SUM(b.creditTotal) FROM AccountPeriodBalance b, Account a " +
+           "WHERE a.id = b.accountId AND b.period = :period GROUP BY a.type")
+    List<Object[]> sumByAccountTypeForPeriod(@Param("period") String period);
+
+    // Totals of one account over all periods before :period (YYYY-MM compares lexically)
+    @Query("SELECT b.accountId AS accountId, SUM(b.debitTotal) AS debitTotal, SUM(b.creditTotal) AS creditTotal " +
+           "FROM AccountPeriodBalance b WHERE b.accountId = :accountId AND b.period < :period GROUP BY b.accountId")
+    List<AccountActivity> sumForAccountBefore(@Param("accountId") Long accountId, @Param("period") String period);
+
+    @Modifying
+    @Query("DELETE FROM AccountPeriodBalance b WHERE b.period = :period")
+    int deleteByPeriod(@Param("period") String period);
+
+    @Modifying
+    @Query("DELETE FROM AccountPeriodBalance b")
+    int deleteAllRows();
+}
@@ -4,7 +4,10 @@ import com.erp.finance.domain.Account;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface AccountRepository extends CrudRepository<Account, Long> {
     boolean existsByCode(String code);
+    Optional<Account> findByCode(String code);
 }
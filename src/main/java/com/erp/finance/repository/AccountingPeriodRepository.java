@@ -0,0 +1,31 @@
+package com.erp.finance.repository;
+
+import com.erp.finance.domain.AccountingPeriod;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountingPeriodRepository extends JpaRepository<AccountingPeriod, Long> {
+    Optional<AccountingPeriod> findByPeriod(String period);
+    Optional<AccountingPeriod> findTopByStatusOrderByPeriodDesc(AccountingPeriod.PeriodStatus status);
+    List<AccountingPeriod> findAllByOrderByPeriodDesc();
+    boolean existsByStatusAndPeriodGreaterThanEqual(AccountingPeriod.PeriodStatus status, String period);
+
+    // SELECT ... FOR SHARE: held by posting transactions, so they do not block each other
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT p FROM AccountingPeriod p WHERE p.period IN :periods ORDER BY p.period")
+    List<AccountingPeriod> lockForPosting(@Param("periods") Collection<String> periods);
+
+    // SELECT ... FOR UPDATE: held by a close over the periods after :after through :through
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM AccountingPeriod p WHERE p.period > :after AND p.period <= :through ORDER BY p.period")
+    List<AccountingPeriod> lockForClose(@Param("after") String after, @Param("through") String through);
+}
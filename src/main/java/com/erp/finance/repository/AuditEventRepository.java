@@ -0,0 +1,23 @@
+package com.erp.finance.repository;
+
+import com.erp.finance.domain.AuditEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AuditEventRepository extends JpaRepository<AuditEvent, Long> {
+
+    // Keyset page in id (= write) order; entity filters optional (null = any)
+    @Query("SELECT e FROM AuditEvent e WHERE e.id > :after " +
+           "AND (:entityType IS NULL OR e.entityType = :entityType) AND (:entityId IS NULL OR e.entityId = :entityId) " +
+           "AND e.occurredAt >= :from AND e.occurredAt < :to ORDER BY e.id")
+    List<AuditEvent> findPage(@Param("after") Long after, @Param("entityType") String entityType,
+                              @Param("entityId") String entityId, @Param("from") LocalDateTime from,
+                              @Param("to") LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,19 @@
+package com.erp.finance.repository;
+
+import com.erp.finance.domain.ClosedPeriodBalance;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ClosedPeriodBalanceRepository extends CrudRepository<ClosedPeriodBalance, Long> {
+    List<ClosedPeriodBalance> findByPeriod(String period);
+
+    // Rows: [AccountType type, BigDecimal debitTotal, BigDecimal creditTotal]
+    @Query("SELECT a.type, SUM(b.debitTotal), SUM(b.creditTotal) FROM ClosedPeriodBalance b, Account a " +
+           "WHERE a.id = b.accountId AND b.period = :period GROUP BY a.type")
+    List<Object[]> sumByAccountTypeForPeriod(@Param("period") String period);
+}
@@ -0,0 +1,12 @@
+package com.erp.finance.repository;
+
+import com.erp.finance.domain.DepreciationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DepreciationRunRepository extends JpaRepository<DepreciationRun, Long> {
+    Optional<DepreciationRun> findByPeriod(String period);
+}
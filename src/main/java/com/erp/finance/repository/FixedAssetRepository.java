@@ -1,6 +1,7 @@
 package com.erp.finance.repository;
 
 import com.erp.finance.domain.FixedAsset;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,4 +11,6 @@ import java.util.List;
 public interface FixedAssetRepository extends JpaRepository<FixedAsset, Long> {
     List<FixedAsset> findByStatus(FixedAsset.AssetStatus status);
     List<FixedAsset> findByCategory(FixedAsset.AssetCategory category);
+    // Keyset chunk of assets in a status, ordered by id
+    List<FixedAsset> findByStatusAndIdGreaterThanOrderByIdAsc(FixedAsset.AssetStatus status, Long afterId, Pageable page);
 }
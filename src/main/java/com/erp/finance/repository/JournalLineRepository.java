@@ -0,0 +1,83 @@
+package com.erp.finance.repository;
+
+import com.erp.finance.domain.JournalLine;
+import com.erp.finance.domain.JournalStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface JournalLineRepository extends CrudRepository<JournalLine, Long> {
+
+    // Excludes closing entries, which would otherwise zero out revenue and expense accounts
+    @Query("SELECT l.accountId AS accountId, SUM(l.debit) AS debitTotal, SUM(l.credit) AS creditTotal " +
+           "FROM JournalLine l JOIN l.journal j " +
+           "WHERE j.status = :status AND j.date BETWEEN :startDate AND :endDate " +
+           "AND (j.closingEntry IS NULL OR j.closingEntry = false) GROUP BY l.accountId")
+    List<AccountActivity> sumByAccountBetween(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate,
+                                              @Param("status") JournalStatus status);
+
+    @Query("SELECT l.accountId AS accountId, SUM(l.debit) AS debitTotal, SUM(l.credit) AS creditTotal " +
+           "FROM JournalLine l JOIN l.journal j " +
+           "WHERE j.status = :status AND j.date <= :asOfDate GROUP BY l.accountId")
+    List<AccountActivity> sumByAccountUpTo(@Param("asOfDate") LocalDate asOfDate,
+                                           @Param("status") JournalStatus status);
+
+    // Rows: [Long accountId, Integer year, Integer month, BigDecimal debitTotal, BigDecimal creditTotal], closing entries excluded
+    @Query("SELECT l.accountId, YEAR(j.date), MONTH(j.date), SUM(l.debit), SUM(l.credit) " +
+           "FROM JournalLine l JOIN l.journal j WHERE j.status = :status AND j.date BETWEEN :startDate AND :endDate " +
+           "AND (j.closingEntry IS NULL OR j.closingEntry = false) AND l.accountId IN :accountIds GROUP BY l.accountId, YEAR(j.date), MONTH(j.date)")
+    List<Object[]> sumByAccountAndMonth(@Param("accountIds") Collection<Long> accountIds,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate,
+                                        @Param("status") JournalStatus status);
+
+    // Rows: [Long accountId, LocalDate date, BigDecimal debitTotal, BigDecimal creditTotal]
+    @Query("SELECT l.accountId, j.date, SUM(l.debit), SUM(l.credit) FROM JournalLine l JOIN l.journal j " +
+           "WHERE j.status = :status GROUP BY l.accountId, j.date")
+    List<Object[]> sumByAccountAndDate(@Param("status") JournalStatus status);
+
+    @Query("SELECT l.id AS lineId, j.id AS journalId, j.date AS date, l.debit AS debit, l.credit AS credit " +
+           "FROM JournalLine l JOIN l.journal j WHERE j.period = :period AND j.status = :status")
+    List<ReconLineView> findReconLines(@Param("period") String period, @Param("status") JournalStatus status);
+
+    // Account ledger queries below all filter on one account and use idx_journal_lines_account.
+
+    // Lines of periods >= :period dated before :beforeDate (the part of the opening balance not in snapshots)
+    @Query("SELECT l.accountId AS accountId, SUM(l.debit) AS debitTotal, SUM(l.credit) AS creditTotal " +
+           "FROM JournalLine l JOIN l.journal j WHERE l.accountId = :accountId AND j.status = :status " +
+           "AND j.period >= :period AND j.date < :beforeDate GROUP BY l.accountId")
+    List<AccountActivity> sumForAccountFromPeriodBefore(@Param("accountId") Long accountId,
+                                                        @Param("period") String period,
+                                                        @Param("beforeDate") LocalDate beforeDate,
+                                                        @Param("status") JournalStatus status);
+
+    // Lines in [startDate, endDate] up to and including the (afterDate, afterLineId) cursor
+    @Query("SELECT l.accountId AS accountId, SUM(l.debit) AS debitTotal, SUM(l.credit) AS creditTotal " +
+           "FROM JournalLine l JOIN l.journal j WHERE l.accountId = :accountId AND j.status = :status " +
+           "AND j.date >= :startDate AND (j.date < :afterDate OR (j.date = :afterDate AND l.id <= :afterLineId)) " +
+           "GROUP BY l.accountId")
+    List<AccountActivity> sumForAccountUpToCursor(@Param("accountId") Long accountId,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("afterDate") LocalDate afterDate,
+                                                  @Param("afterLineId") Long afterLineId,
+                                                  @Param("status") JournalStatus status);
+
+    @Query("SELECT l.id AS lineId, j.id AS journalId, j.date AS date, l.description AS description, " +
+           "l.debit AS debit, l.credit AS credit FROM JournalLine l JOIN l.journal j " +
+           "WHERE l.accountId = :accountId AND j.status = :status AND j.date <= :endDate " +
+           "AND (j.date > :afterDate OR (j.date = :afterDate AND l.id > :afterLineId)) ORDER BY j.date, l.id")
+    List<LedgerLineView> findLedgerLines(@Param("accountId") Long accountId,
+                                         @Param("afterDate") LocalDate afterDate,
+                                         @Param("afterLineId") Long afterLineId,
+                                         @Param("endDate") LocalDate endDate,
+                                         @Param("status") JournalStatus status,
+                                         Pageable page);
+}
@@ -2,7 +2,10 @@ package com.erp.finance.repository;
 
 import com.erp.finance.domain.JournalEntry;
 import com.erp.finance.domain.JournalStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -12,4 +15,56 @@ import java.util.List;
 public interface JournalRepository extends CrudRepository<JournalEntry, Long> {
 	List<JournalEntry> findByPeriodAndStatus(String period, JournalStatus status);
 	List<JournalEntry> findByDateBetweenAndStatus(LocalDate startDate, LocalDate endDate, JournalStatus status);
+
+	// Rows: [Long accountId, String period, BigDecimal debitTotal, BigDecimal creditTotal]
+	@Query("SELECT l.accountId, j.period, SUM(l.debit), SUM(l.credit) FROM JournalEntry j JOIN j.lines l " +
+	       "WHERE j.status = :status GROUP BY l.accountId, j.period")
+	List<Object[]> sumLinesByAccountAndPeriod(@Param("status") JournalStatus status);
+
+	@Query("SELECT l.accountId, j.period, SUM(l.debit), SUM(l.credit) FROM JournalEntry j JOIN j.lines l " +
+	       "WHERE j.status = :status AND j.period = :period GROUP BY l.accountId, j.period")
+	List<Object[]> sumLinesByAccountForPeriod(@Param("period") String period, @Param("status") JournalStatus status);
+
+	// Journals with their lines in one query instead of one lines query per journal
+	@Query("SELECT DISTINCT j FROM JournalEntry j LEFT JOIN FETCH j.lines ORDER BY j.id")
+	List<JournalEntry> findAllWithLines();
+
+	// Keyset page: ids after the cursor, filters optional (null = any)
+	@Query("SELECT j.id FROM JournalEntry j WHERE j.id > :after " +
+	       "AND (:period IS NULL OR j.period = :period) AND (:status IS NULL OR j.status = :status) ORDER BY j.id")
+	List<Long> findPageIds(@Param("after") Long after, @Param("period") String period,
+	                       @Param("status") JournalStatus status, Pageable page);
+
+	@Query("SELECT DISTINCT j FROM JournalEntry j LEFT JOIN FETCH j.lines WHERE j.id IN :ids ORDER BY j.id")
+	List<JournalEntry> findWithLinesByIdIn(@Param("ids") List<Long> ids);
+
+	// Rows: [Long accountId, BigDecimal debitTotal, BigDecimal creditTotal] over all periods
+	@Query("SELECT l.accountId, SUM(l.debit), SUM(l.credit) FROM JournalEntry j JOIN j.lines l " +
+	       "WHERE j.status = :status GROUP BY l.accountId")
+	List<Object[]> sumLinesByAccount(@Param("status") JournalStatus status);
+
+	// Rows: [Long accountId, BigDecimal debitTotal, BigDecimal creditTotal] over all periods up to :period
+	@Query("SELECT l.accountId, SUM(l.debit), SUM(l.credit) FROM JournalEntry j JOIN j.lines l " +
+	       "WHERE j.status = :status AND j.period <= :period GROUP BY l.accountId")
+	List<Object[]> sumLinesByAccountUpToPeriod(@Param("period") String period, @Param("status") JournalStatus status);
+
+	// Periods after :after and before :before that have journals with the given status
+	@Query("SELECT DISTINCT j.period FROM JournalEntry j WHERE j.status = :status " +
+	       "AND j.period > :after AND j.period < :before ORDER BY j.period")
+	List<String> findPeriodsBetween(@Param("after") String after, @Param("before") String before,
+	                                @Param("status") JournalStatus status);
+
+	// Periods after :after and before :before that have journals not in the given status
+	@Query("SELECT DISTINCT j.period FROM JournalEntry j WHERE j.status <> :status " +
+	       "AND j.period > :after AND j.period < :before ORDER BY j.period")
+	List<String> findPeriodsWithStatusNotBetween(@Param("after") String after, @Param("before") String before,
+	                                             @Param("status") JournalStatus status);
+
+	long countByPeriodAndStatusNot(String period, JournalStatus status);
+
+	@Query("SELECT MIN(j.period) FROM JournalEntry j")
+	String findEarliestPeriod();
+
+	@Query("SELECT MAX(j.postingSequence) FROM JournalEntry j")
+	Long findMaxPostingSequence();
 }
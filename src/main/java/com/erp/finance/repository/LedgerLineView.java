@@ -0,0 +1,16 @@
+package com.erp.finance.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One posted line of an account ledger, in (date, lineId) order.
+ */
+public interface LedgerLineView {
+    Long getLineId();
+    Long getJournalId();
+    LocalDate getDate();
+    String getDescription();
+    BigDecimal getDebit();
+    BigDecimal getCredit();
+}
@@ -0,0 +1,15 @@
+package com.erp.finance.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Flat view of a posted journal line used by bank reconciliation matching.
+ */
+public interface ReconLineView {
+    Long getLineId();
+    Long getJournalId();
+    LocalDate getDate();
+    BigDecimal getDebit();
+    BigDecimal getCredit();
+}
@@ -0,0 +1,55 @@
+package com.erp.finance.repository;
+
+import com.erp.finance.domain.ReportJob;
+import com.erp.finance.domain.ReportJob.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Status changes are conditional updates, so a worker finishing a job and a client
+ * cancelling it cannot overwrite each other.
+ */
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+    List<ReportJob> findTop50ByOrderByCreatedAtDesc();
+
+    @Query("SELECT j.result FROM ReportJob j WHERE j.id = :id")
+    String findResultById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :to, j.startedAt = :now WHERE j.id = :id AND j.status = :from")
+    int start(@Param("id") Long id, @Param("from") JobStatus from, @Param("to") JobStatus to,
+              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.progress = :progress WHERE j.id = :id AND j.status = :status")
+    int updateProgress(@Param("id") Long id, @Param("status") JobStatus status, @Param("progress") int progress);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :to, j.progress = 100, j.result = :result, j.finishedAt = :now " +
+           "WHERE j.id = :id AND j.status = :from")
+    int complete(@Param("id") Long id, @Param("from") JobStatus from, @Param("to") JobStatus to,
+                 @Param("result") String result, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :to, j.error = :error, j.finishedAt = :now " +
+           "WHERE j.id = :id AND j.status IN :from")
+    int finish(@Param("id") Long id, @Param("from") Collection<JobStatus> from, @Param("to") JobStatus to,
+               @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :to, j.error = :error, j.finishedAt = :now WHERE j.status IN :from")
+    int finishAll(@Param("from") Collection<JobStatus> from, @Param("to") JobStatus to,
+                  @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM ReportJob j WHERE j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,6 +2,7 @@ package com.erp.finance.service;
 
 import com.erp.finance.domain.*;
 import com.erp.finance.repository.*;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,6 +11,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class APService {
@@ -18,31 +20,45 @@ public class APService {
     private final VendorRepository vendorRepository;
     private final JournalRepository journalRepository;
     private final AccountRepository accountRepository;
-    private final PostingService postingService;
+    private final AccountCache accountCache;
+    private final PostingSequencer postingSequencer;
 
     public APService(APInvoiceRepository apInvoiceRepository,
                      APPaymentRepository apPaymentRepository,
                      VendorRepository vendorRepository,
                      JournalRepository journalRepository,
                      AccountRepository accountRepository,
-                     PostingService postingService) {
+                     AccountCache accountCache,
+                     PostingSequencer postingSequencer) {
         this.apInvoiceRepository = apInvoiceRepository;
         this.apPaymentRepository = apPaymentRepository;
         this.vendorRepository = vendorRepository;
         this.journalRepository = journalRepository;
         this.accountRepository = accountRepository;
-        this.postingService = postingService;
+        this.accountCache = accountCache;
+        this.postingSequencer = postingSequencer;
     }
 
     public List<APInvoice> getAllInvoices() {
-        List<APInvoice> invoices = new ArrayList<>();
-        apInvoiceRepository.findAll().forEach(invoice -> {
-            // Set vendor name
-            vendorRepository.findById(invoice.getVendorId()).ifPresent(vendor -> {
-                invoice.setVendorName(vendor.getName());
-            });
+        return withNames(apInvoiceRepository.findAllWithVendorName());
+    }
+
+    /**
+     * One page of invoices ordered by id, starting after the {@code after} cursor.
+     * Vendor and status filters are optional.
+     */
+    public List<APInvoice> getInvoicePage(Long after, int limit, Long vendorId, APInvoice.InvoiceStatus status) {
+        return withNames(apInvoiceRepository.findPageWithVendorName(after != null ? after : 0L, vendorId, status,
+                PageRequest.of(0, limit)));
+    }
+
+    private List<APInvoice> withNames(List<Object[]> rows) {
+        List<APInvoice> invoices = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            APInvoice invoice = (APInvoice) row[0];
+            invoice.setVendorName((String) row[1]);
             invoices.add(invoice);
-        });
+        }
         return invoices;
     }
 
@@ -82,7 +98,7 @@ public class APService {
         
         Account vendorAccount;
         if (vendor.getAccountId() != null) {
-            vendorAccount = accountRepository.findById(vendor.getAccountId())
+            vendorAccount = accountCache.findById(vendor.getAccountId())
                     .orElseThrow(() -> new RuntimeException("Vendor account not found"));
         } else {
             // Fallback to control account
@@ -117,8 +133,7 @@ public class APService {
         journalRepository.save(journal);
         
         // Post to GL
-        postingService.applyLineToAccount(expenseLine);
-        postingService.applyLineToAccount(apLine);
+        postingSequencer.postAfterCommit(journal);
     }
     
     private void createAPPaymentJournalEntry(APPayment payment, APInvoice invoice) {
@@ -128,7 +143,7 @@ public class APService {
         
         Account vendorAccount;
         if (vendor.getAccountId() != null) {
-            vendorAccount = accountRepository.findById(vendor.getAccountId())
+            vendorAccount = accountCache.findById(vendor.getAccountId())
                     .orElseThrow(() -> new RuntimeException("Vendor account not found"));
         } else {
             vendorAccount = findOrCreateAccount("2100", "Accounts Payable - Control", AccountType.LIABILITY);
@@ -164,15 +179,13 @@ public class APService {
         journalRepository.save(journal);
         
         // Post to GL
-        postingService.applyLineToAccount(apLine);
-        postingService.applyLineToAccount(cashLine);
+        postingSequencer.postAfterCommit(journal);
     }
     
     private Account findOrCreateAccount(String code, String name, AccountType type) {
-        for (Account account : accountRepository.findAll()) {
-            if (account.getCode().equals(code)) {
-                return account;
-            }
+        Optional<Account> existing = accountCache.findByCode(code);
+        if (existing.isPresent()) {
+            return existing.get();
         }
         
         // Create account if not found
@@ -0,0 +1,302 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.ARInvoice;
+import com.erp.finance.domain.Customer;
+import com.erp.finance.repository.ARInvoiceRepository;
+import com.erp.finance.repository.CustomerRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AR aging by customer, from per-customer bucket totals kept in memory: current (not yet
+ * due), 1-30, 31-60, 61-90, 91-120 and over 120 days past due. The report therefore costs
+ * O(customers), however many invoices are open.
+ *
+ * Open invoices (non-zero balance) are loaded at startup. ARService reports each created,
+ * updated, paid or deleted invoice, and the change is applied after commit by moving the
+ * invoice's balance out of its old bucket and into its new one. Buckets depend on the
+ * date, so a report on a new day first re-buckets the open invoices in memory. A nightly
+ * pass (erp.ar-aging.rebucket-cron) reloads them from the database, which also picks up
+ * changes made outside ARService. With erp.ar-aging.enabled=false the report is computed
+ * from a query each time.
+ */
+@Service
+public class ARAgingIndex {
+    public static final List<String> BUCKETS =
+            List.of("current", "days1to30", "days31to60", "days61to90", "days91to120", "over120");
+
+    private final ARInvoiceRepository invoices;
+    private final CustomerRepository customers;
+    private final boolean enabled;
+
+    // guarded by "this"
+    private final Map<Long, OpenInvoice> open = new HashMap<>();
+    private final Map<Long, Money[]> byCustomer = new HashMap<>();
+    private LocalDate asOf;
+    // changes applied while a rebuild query runs, replayed over its result
+    private List<Object[]> replay;
+
+    private final Object rebuildLock = new Object();
+
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong rebuckets = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+
+    public ARAgingIndex(ARInvoiceRepository invoices, CustomerRepository customers,
+                        @Value("${erp.ar-aging.enabled:true}") boolean enabled) {
+        this.invoices = invoices;
+        this.customers = customers;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void build() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${erp.ar-aging.rebucket-cron:0 5 0 * * *}")
+    public void nightlyRebucket() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reload open invoices from the database and re-bucket them as of today.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            List<Object[]> rows;
+            try {
+                rows = invoices.findOpenBalances();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    replay = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                open.clear();
+                for (Object[] row : rows) {
+                    open.put((Long) row[0], new OpenInvoice((Long) row[1], (LocalDate) row[2], (BigDecimal) row[3]));
+                }
+                for (Object[] change : replay) {
+                    apply((Long) change[0], (OpenInvoice) change[1]);
+                }
+                replay = null;
+                rebucket(LocalDate.now());
+                rebuilds.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * An invoice was created, updated or paid. Its current state is applied after commit.
+     */
+    public void invoiceChanged(ARInvoice invoice) {
+        if (!enabled || invoice.getId() == null) return;
+        Long id = invoice.getId();
+        OpenInvoice state = invoice.getBalance() == null || invoice.getBalance().signum() == 0
+                || invoice.getDueDate() == null
+                ? null
+                : new OpenInvoice(invoice.getCustomerId(), invoice.getDueDate(), invoice.getBalance());
+        afterCommit(() -> update(id, state));
+    }
+
+    public void invoiceRemoved(Long id) {
+        if (!enabled) return;
+        afterCommit(() -> update(id, null));
+    }
+
+    /**
+     * Aging per customer, largest total first, and overall; optionally for one customer.
+     */
+    public Map<String, Object> report(Long customerId) {
+        LocalDate today = LocalDate.now();
+        Map<Long, BigDecimal[]> rows = new HashMap<>();
+        if (enabled) {
+            synchronized (this) {
+                if (!today.equals(asOf)) {
+                    rebucket(today);
+                }
+                byCustomer.forEach((customer, buckets) -> {
+                    if (customerId == null || customerId.equals(customer)) {
+                        rows.put(customer, toAmounts(buckets));
+                    }
+                });
+            }
+        } else {
+            Map<Long, Money[]> computed = new HashMap<>();
+            for (Object[] row : invoices.findOpenBalances()) {
+                Long customer = (Long) row[1];
+                if (customerId == null || customerId.equals(customer)) {
+                    computed.computeIfAbsent(customer, c -> newBuckets())[bucket((LocalDate) row[2], today)]
+                            .add((BigDecimal) row[3]);
+                }
+            }
+            computed.forEach((customer, buckets) -> rows.put(customer, toAmounts(buckets)));
+        }
+
+        Map<Long, String> names = new HashMap<>();
+        for (Customer customer : customers.findAllById(rows.keySet())) {
+            names.put(customer.getId(), customer.getName());
+        }
+        Money[] totals = newBuckets();
+        List<Map<String, Object>> customerRows = new ArrayList<>(rows.size());
+        rows.forEach((customer, amounts) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("customerId", customer);
+            row.put("customerName", names.get(customer));
+            Money total = Money.zero();
+            for (int i = 0; i < amounts.length; i++) {
+                row.put(BUCKETS.get(i), amounts[i]);
+                total.add(amounts[i]);
+                totals[i].add(amounts[i]);
+            }
+            row.put("total", total.toBigDecimal());
+            customerRows.add(row);
+        });
+        customerRows.sort((a, b) -> ((BigDecimal) b.get("total")).compareTo((BigDecimal) a.get("total")));
+
+        Map<String, Object> totalRow = new LinkedHashMap<>();
+        Money grandTotal = Money.zero();
+        for (int i = 0; i < totals.length; i++) {
+            totalRow.put(BUCKETS.get(i), totals[i].toBigDecimal());
+            grandTotal.add(totals[i]);
+        }
+        totalRow.put("total", grandTotal.toBigDecimal());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("asOf", today);
+        report.put("buckets", BUCKETS);
+        report.put("customers", customerRows);
+        report.put("totals", totalRow);
+        return report;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("openInvoices", open.size());
+        stats.put("customers", byCustomer.size());
+        stats.put("asOf", asOf);
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("rebuckets", rebuckets.get());
+        stats.put("updates", updates.get());
+        return stats;
+    }
+
+    private synchronized void update(Long id, OpenInvoice state) {
+        if (replay != null) {
+            replay.add(new Object[]{id, state});
+        }
+        apply(id, state);
+        updates.incrementAndGet();
+    }
+
+    // guarded by "this"
+    private void apply(Long id, OpenInvoice state) {
+        OpenInvoice previous = state != null ? open.put(id, state) : open.remove(id);
+        if (asOf == null) return;
+        if (previous != null) {
+            Money[] buckets = byCustomer.get(previous.customerId);
+            if (buckets != null) {
+                buckets[bucket(previous.dueDate, asOf)].subtract(previous.balance);
+                if (allZero(buckets)) {
+                    byCustomer.remove(previous.customerId);
+                }
+            }
+        }
+        if (state != null) {
+            byCustomer.computeIfAbsent(state.customerId, c -> newBuckets())[bucket(state.dueDate, asOf)]
+                    .add(state.balance);
+        }
+    }
+
+    // guarded by "this"
+    private void rebucket(LocalDate date) {
+        byCustomer.clear();
+        for (OpenInvoice invoice : open.values()) {
+            byCustomer.computeIfAbsent(invoice.customerId, c -> newBuckets())[bucket(invoice.dueDate, date)]
+                    .add(invoice.balance);
+        }
+        asOf = date;
+        rebuckets.incrementAndGet();
+    }
+
+    static int bucket(LocalDate dueDate, LocalDate asOf) {
+        long daysPastDue = asOf.toEpochDay() - dueDate.toEpochDay();
+        if (daysPastDue <= 0) return 0;
+        if (daysPastDue <= 30) return 1;
+        if (daysPastDue <= 60) return 2;
+        if (daysPastDue <= 90) return 3;
+        if (daysPastDue <= 120) return 4;
+        return 5;
+    }
+
+    private static Money[] newBuckets() {
+        Money[] buckets = new Money[BUCKETS.size()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = Money.zero();
+        }
+        return buckets;
+    }
+
+    private static BigDecimal[] toAmounts(Money[] buckets) {
+        BigDecimal[] amounts = new BigDecimal[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            amounts[i] = buckets[i].toBigDecimal();
+        }
+        return amounts;
+    }
+
+    private static boolean allZero(Money[] buckets) {
+        for (Money bucket : buckets) {
+            if (!bucket.isZero()) return false;
+        }
+        return true;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class OpenInvoice {
+        final Long customerId;
+        final LocalDate dueDate;
+        final BigDecimal balance;
+
+        OpenInvoice(Long customerId, LocalDate dueDate, BigDecimal balance) {
+            this.customerId = customerId;
+            this.dueDate = dueDate;
+            this.balance = balance;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.erp.finance.domain.*;
 import com.erp.finance.repository.*;
 import com.erp.finance.repo.ARInvoiceItemRepository;
 import com.erp.finance.web.ARInvoiceDTO;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +13,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class ARService {
@@ -20,34 +22,51 @@ public class ARService {
     private final CustomerRepository customerRepository;
     private final JournalRepository journalRepository;
     private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
     private final ARInvoiceItemRepository arInvoiceItemRepository;
-    private final PostingService postingService;
+    private final PostingSequencer postingSequencer;
+    private final ARAgingIndex agingIndex;
 
     public ARService(ARInvoiceRepository arInvoiceRepository,
                      ARPaymentRepository arPaymentRepository,
                      CustomerRepository customerRepository,
                      JournalRepository journalRepository,
                      AccountRepository accountRepository,
+                     AccountCache accountCache,
                      ARInvoiceItemRepository arInvoiceItemRepository,
-                     PostingService postingService) {
+                     PostingSequencer postingSequencer,
+                     ARAgingIndex agingIndex) {
         this.arInvoiceRepository = arInvoiceRepository;
         this.arPaymentRepository = arPaymentRepository;
         this.customerRepository = customerRepository;
         this.journalRepository = journalRepository;
         this.accountRepository = accountRepository;
+        this.accountCache = accountCache;
         this.arInvoiceItemRepository = arInvoiceItemRepository;
-        this.postingService = postingService;
+        this.postingSequencer = postingSequencer;
+        this.agingIndex = agingIndex;
     }
 
     public List<ARInvoice> getAllInvoices() {
-        List<ARInvoice> invoices = new ArrayList<>();
-        arInvoiceRepository.findAll().forEach(invoice -> {
-            // Set customer name
-            customerRepository.findById(invoice.getCustomerId()).ifPresent(customer -> {
-                invoice.setCustomerName(customer.getName());
-            });
+        return withNames(arInvoiceRepository.findAllWithCustomerName());
+    }
+
+    /**
+     * One page of invoices ordered by id, starting after the {@code after} cursor.
+     * Customer and status filters are optional.
+     */
+    public List<ARInvoice> getInvoicePage(Long after, int limit, Long customerId, ARInvoice.InvoiceStatus status) {
+        return withNames(arInvoiceRepository.findPageWithCustomerName(after != null ? after : 0L, customerId, status,
+                PageRequest.of(0, limit)));
+    }
+
+    private List<ARInvoice> withNames(List<Object[]> rows) {
+        List<ARInvoice> invoices = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ARInvoice invoice = (ARInvoice) row[0];
+            invoice.setCustomerName((String) row[1]);
             invoices.add(invoice);
-        });
+        }
         return invoices;
     }
 
@@ -72,6 +91,7 @@ public class ARService {
         
         // Save invoice first
         ARInvoice saved = arInvoiceRepository.save(invoice);
+        agingIndex.invoiceChanged(saved);
         
         // Create journal entry for AR invoice
         // Debit: Accounts Receivable
@@ -88,7 +108,7 @@ public class ARService {
         
         Account customerAccount;
         if (customer.getAccountId() != null) {
-            customerAccount = accountRepository.findById(customer.getAccountId())
+            customerAccount = accountCache.findById(customer.getAccountId())
                     .orElseThrow(() -> new RuntimeException("Customer account not found"));
         } else {
             // Fallback to control account
@@ -125,8 +145,7 @@ public class ARService {
         journalRepository.save(journal);
         
         // Post to GL
-        postingService.applyLineToAccount(arLine);
-        postingService.applyLineToAccount(revenueLine);
+        postingSequencer.postAfterCommit(journal);
     }
 
     @Transactional
@@ -143,13 +162,16 @@ public class ARService {
         existing.setDescription(updatedInvoice.getDescription());
         existing.setStatus(updatedInvoice.getStatus());
         
-        return arInvoiceRepository.save(existing);
+        ARInvoice saved = arInvoiceRepository.save(existing);
+        agingIndex.invoiceChanged(saved);
+        return saved;
     }
 
     @Transactional
     public void deleteInvoice(Long id) {
         arInvoiceItemRepository.deleteByInvoiceId(id);
         arInvoiceRepository.deleteById(id);
+        agingIndex.invoiceRemoved(id);
     }
 
     // Invoice with items methods
@@ -198,8 +220,9 @@ public class ARService {
         if (items != null) {
             for (ARInvoiceItem item : items) {
                 item.setInvoiceId(savedInvoice.getId());
-                savedItems.add(arInvoiceItemRepository.save(item));
             }
+            // one batched INSERT on flush now that ids come from a sequence
+            savedItems.addAll(arInvoiceItemRepository.saveAll(items));
         }
 
         return new ARInvoiceDTO(savedInvoice, savedItems);
@@ -238,8 +261,8 @@ public class ARService {
         if (items != null) {
             for (ARInvoiceItem item : items) {
                 item.setInvoiceId(updatedInvoice.getId());
-                savedItems.add(arInvoiceItemRepository.save(item));
             }
+            savedItems.addAll(arInvoiceItemRepository.saveAll(items));
         }
 
         return new ARInvoiceDTO(updatedInvoice, savedItems);
@@ -262,6 +285,7 @@ public class ARService {
         }
         
         arInvoiceRepository.save(invoice);
+        agingIndex.invoiceChanged(invoice);
         
         // Get customer-specific AR account
         Customer customer = customerRepository.findById(invoice.getCustomerId())
@@ -269,7 +293,7 @@ public class ARService {
         
         Account customerAccount;
         if (customer.getAccountId() != null) {
-            customerAccount = accountRepository.findById(customer.getAccountId())
+            customerAccount = accountCache.findById(customer.getAccountId())
                     .orElseThrow(() -> new RuntimeException("Customer account not found"));
         } else {
             customerAccount = findOrCreateAccount("1200", "Accounts Receivable - Control", AccountType.ASSET);
@@ -305,15 +329,13 @@ public class ARService {
         journalRepository.save(journal);
         
         // Post to GL
-        postingService.applyLineToAccount(cashLine);
-        postingService.applyLineToAccount(arLine);
+        postingSequencer.postAfterCommit(journal);
     }
     
     private Account findOrCreateAccount(String code, String name, AccountType type) {
-        for (Account account : accountRepository.findAll()) {
-            if (account.getCode().equals(code)) {
-                return account;
-            }
+        Optional<Account> existing = accountCache.findByCode(code);
+        if (existing.isPresent()) {
+            return existing.get();
         }
         
         // Create account if not found
@@ -0,0 +1,131 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.Account;
+import com.erp.finance.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through LRU cache of the chart of accounts, keyed by id and by code.
+ * Cached instances are shared between threads and must be treated as read-only;
+ * in particular their balance is not kept current - read it from AccountRepository.
+ */
+@Service
+public class AccountCache {
+    private final AccountRepository accounts;
+    private final int maxEntries;
+
+    // Both maps are guarded by "this"; idByCode only holds codes of accounts present in byId
+    private final LinkedHashMap<Long, Account> byId;
+    private final Map<String, Long> idByCode = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AccountCache(AccountRepository accounts,
+                        @Value("${erp.account-cache.max-entries:10000}") int maxEntries) {
+        this.accounts = accounts;
+        this.maxEntries = maxEntries;
+        this.byId = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Account> eldest) {
+                if (size() > AccountCache.this.maxEntries) {
+                    idByCode.remove(eldest.getValue().getCode());
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<Account> findById(Long id) {
+        if (id == null) return Optional.empty();
+        synchronized (this) {
+            Account cached = byId.get(id);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(cached);
+            }
+        }
+        misses.incrementAndGet();
+        Optional<Account> loaded = accounts.findById(id);
+        loaded.ifPresent(this::cacheLoaded);
+        return loaded;
+    }
+
+    public Optional<Account> findByCode(String code) {
+        if (code == null) return Optional.empty();
+        synchronized (this) {
+            Long id = idByCode.get(code);
+            Account cached = id != null ? byId.get(id) : null;
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Optional.of(cached);
+            }
+        }
+        misses.incrementAndGet();
+        Optional<Account> loaded = accounts.findByCode(code);
+        loaded.ifPresent(this::cacheLoaded);
+        return loaded;
+    }
+
+    public synchronized void evict(Long id) {
+        Account removed = byId.remove(id);
+        if (removed != null) {
+            idByCode.remove(removed.getCode());
+        }
+    }
+
+    public synchronized void clear() {
+        byId.clear();
+        idByCode.clear();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("size", byId.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        return stats;
+    }
+
+    private void cacheLoaded(Account account) {
+        synchronized (this) {
+            Account previous = byId.put(account.getId(), account);
+            if (previous != null && !previous.getCode().equals(account.getCode())) {
+                idByCode.remove(previous.getCode());
+            }
+            idByCode.put(account.getCode(), account.getId());
+        }
+        // An account read inside a transaction may have been created by it; drop it again on rollback
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Long id = account.getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        evict(id);
+                    }
+                }
+            });
+        }
+    }
+}
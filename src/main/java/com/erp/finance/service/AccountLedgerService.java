@@ -0,0 +1,175 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.Account;
+import com.erp.finance.domain.JournalStatus;
+import com.erp.finance.repository.AccountActivity;
+import com.erp.finance.repository.AccountPeriodBalanceRepository;
+import com.erp.finance.repository.JournalLineRepository;
+import com.erp.finance.repository.LedgerLineView;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Account ledger with a running balance (debit minus credit). Only the account's own lines
+ * are read, in (date, lineId) order, so long ledgers can be paged with a keyset cursor.
+ * The opening balance comes from the period snapshots plus the lines of the start period
+ * dated before the start date.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AccountLedgerService {
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    public static final int MAX_PAGE_SIZE = 5000;
+
+    private final AccountCache accounts;
+    private final JournalLineRepository journalLines;
+    private final AccountPeriodBalanceRepository periodBalances;
+
+    public AccountLedgerService(AccountCache accounts,
+                                JournalLineRepository journalLines,
+                                AccountPeriodBalanceRepository periodBalances) {
+        this.accounts = accounts;
+        this.journalLines = journalLines;
+        this.periodBalances = periodBalances;
+    }
+
+    /**
+     * Balance of the account from all POSTED activity dated before {@code startDate}.
+     */
+    public BigDecimal openingBalance(Long accountId, LocalDate startDate) {
+        String startPeriod = startDate.toString().substring(0, 7);
+        return net(periodBalances.sumForAccountBefore(accountId, startPeriod))
+                .add(net(journalLines.sumForAccountFromPeriodBefore(accountId, startPeriod, startDate, JournalStatus.POSTED)));
+    }
+
+    /**
+     * One page of ledger rows in [startDate, endDate] after the cursor. A null cursor starts
+     * at the beginning of the range. The response carries the balance before the first row
+     * and, while more rows remain, the cursor for the next page. The cursor includes the
+     * running balance after its row ({@code afterBalance}) and the range's opening balance;
+     * when they are passed back the page reads only its own rows. Without them the balance
+     * at the cursor is summed from the start of the range.
+     */
+    public Map<String, Object> getLedgerPage(Long accountId, LocalDate startDate, LocalDate endDate,
+                                             LocalDate afterDate, Long afterLineId,
+                                             BigDecimal afterBalance, BigDecimal openingBalance, int limit) {
+        Account account = accounts.findById(accountId)
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        LocalDate cursorDate;
+        long cursorLineId;
+        BigDecimal rangeOpening = openingBalance != null ? openingBalance : openingBalance(accountId, startDate);
+        BigDecimal balance;
+        if (afterDate == null || afterDate.isBefore(startDate)) {
+            cursorDate = startDate.minusDays(1);
+            cursorLineId = Long.MAX_VALUE;
+            balance = rangeOpening;
+        } else {
+            cursorDate = afterDate;
+            cursorLineId = afterLineId != null ? afterLineId : Long.MAX_VALUE;
+            balance = afterBalance != null ? afterBalance
+                    : rangeOpening.add(net(journalLines.sumForAccountUpToCursor(
+                            accountId, startDate, cursorDate, cursorLineId, JournalStatus.POSTED)));
+        }
+
+        List<LedgerLineView> lines = journalLines.findLedgerLines(accountId, cursorDate, cursorLineId, endDate,
+                JournalStatus.POSTED, PageRequest.of(0, size));
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("reportType", "Account Ledger");
+        page.put("accountCode", account.getCode());
+        page.put("accountName", account.getName());
+        page.put("accountType", account.getType());
+        page.put("startDate", startDate);
+        page.put("endDate", endDate);
+        page.put("openingBalance", rangeOpening);
+        page.put("pageOpeningBalance", balance);
+
+        List<Map<String, Object>> transactions = new ArrayList<>(lines.size());
+        for (LedgerLineView line : lines) {
+            balance = balance.add(line.getDebit()).subtract(line.getCredit());
+            transactions.add(toRow(line, balance));
+        }
+        page.put("transactions", transactions);
+        page.put("pageEndingBalance", balance);
+        if (lines.size() == size) {
+            LedgerLineView last = lines.get(lines.size() - 1);
+            Map<String, Object> next = new LinkedHashMap<>();
+            next.put("afterDate", last.getDate());
+            next.put("afterLineId", last.getLineId());
+            next.put("afterBalance", balance);
+            next.put("openingBalance", rangeOpening);
+            page.put("next", next);
+        } else {
+            page.put("next", null);
+            page.put("endingBalance", balance);
+        }
+        return page;
+    }
+
+    /**
+     * The whole ledger for the range in one response (used by the report endpoint).
+     */
+    public Map<String, Object> getLedger(Long accountId, LocalDate startDate, LocalDate endDate) {
+        Map<String, Object> report = getLedgerPage(accountId, startDate, endDate, null, null, null, null, MAX_PAGE_SIZE);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> transactions = (List<Map<String, Object>>) report.get("transactions");
+        Map<String, Object> next = nextCursor(report);
+        while (next != null) {
+            Map<String, Object> page = getLedgerPage(accountId, startDate, endDate, next, MAX_PAGE_SIZE);
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> more = (List<Map<String, Object>>) page.get("transactions");
+            transactions.addAll(more);
+            report.put("endingBalance", page.get("pageEndingBalance"));
+            next = nextCursor(page);
+        }
+        report.remove("next");
+        report.remove("pageOpeningBalance");
+        report.remove("pageEndingBalance");
+        return report;
+    }
+
+    /**
+     * The page after a "next" cursor returned by a previous page.
+     */
+    public Map<String, Object> getLedgerPage(Long accountId, LocalDate startDate, LocalDate endDate,
+                                             Map<String, Object> next, int limit) {
+        return getLedgerPage(accountId, startDate, endDate, (LocalDate) next.get("afterDate"),
+                (Long) next.get("afterLineId"), (BigDecimal) next.get("afterBalance"),
+                (BigDecimal) next.get("openingBalance"), limit);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> nextCursor(Map<String, Object> page) {
+        return (Map<String, Object>) page.get("next");
+    }
+
+    private static Map<String, Object> toRow(LedgerLineView line, BigDecimal balance) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("date", line.getDate());
+        row.put("journalId", line.getJournalId());
+        row.put("lineId", line.getLineId());
+        row.put("description", line.getDescription());
+        row.put("debit", line.getDebit());
+        row.put("credit", line.getCredit());
+        row.put("balance", balance);
+        return row;
+    }
+
+    private static BigDecimal net(List<AccountActivity> activity) {
+        Money total = Money.zero();
+        for (AccountActivity row : activity) {
+            total.add(row.getDebitTotal()).subtract(row.getCreditTotal());
+        }
+        return total.toBigDecimal();
+    }
+}
@@ -0,0 +1,195 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.AuditEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only audit trail written behind the request. record() puts the event on a
+ * lock-free queue and returns; a scheduled writer drains the queue and inserts the events
+ * in JDBC batches of erp.audit.batch-size.
+ *
+ * The queue holds at most erp.audit.queue-capacity events. When it is full a caller waits
+ * up to erp.audit.offer-timeout-ms for the writer to make room, and the event is then
+ * dropped and counted. A batch whose insert fails is retried on the next flushes and
+ * counted as lost after three failed attempts. Queued events are lost if the process dies.
+ */
+@Service
+public class AuditTrail {
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_events (id, occurred_at, username, action, entity_type, entity_id, http_status, details) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SequenceIdAllocator ids;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+
+    private final ConcurrentLinkedQueue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    // reserved before an event is queued, released when the writer takes it
+    private final AtomicInteger queued = new AtomicInteger();
+
+    // owned by the writer (flush is synchronized)
+    private List<AuditEvent> failedBatch;
+    private int failedAttempts;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+
+    public AuditTrail(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, SequenceIdAllocator ids,
+                      @Value("${erp.audit.enabled:true}") boolean enabled,
+                      @Value("${erp.audit.queue-capacity:10000}") int capacity,
+                      @Value("${erp.audit.batch-size:500}") int batchSize,
+                      @Value("${erp.audit.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ids = ids;
+        this.enabled = enabled;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, offerTimeoutMs));
+    }
+
+    /**
+     * Queue an event for writing. False when it was dropped because the queue stayed full.
+     */
+    public boolean record(String username, String action, String entityType, String entityId,
+                          int httpStatus, String details) {
+        if (!enabled) return false;
+        AuditEvent event = new AuditEvent();
+        event.setOccurredAt(LocalDateTime.now());
+        event.setUsername(truncate(username, 100));
+        event.setAction(truncate(action, 200));
+        event.setEntityType(truncate(entityType, 60));
+        event.setEntityId(truncate(entityId, 60));
+        event.setHttpStatus(httpStatus);
+        event.setDetails(truncate(details, 1000));
+        if (!reserve()) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        queue.offer(event);
+        recorded.incrementAndGet();
+        return true;
+    }
+
+    private boolean reserve() {
+        long deadline = 0;
+        while (true) {
+            int size = queued.get();
+            if (size < capacity) {
+                if (queued.compareAndSet(size, size + 1)) return true;
+                continue;
+            }
+            if (deadline == 0) {
+                if (offerTimeoutNanos == 0) return false;
+                waited.incrementAndGet();
+                deadline = System.nanoTime() + offerTimeoutNanos;
+            } else if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * Write everything queued so far, one batch at a time.
+     */
+    @Scheduled(fixedDelayString = "${erp.audit.flush-interval-ms:200}")
+    public synchronized void flush() {
+        while (true) {
+            List<AuditEvent> batch = failedBatch != null ? failedBatch : drain();
+            if (batch.isEmpty()) return;
+            try {
+                write(batch);
+                written.addAndGet(batch.size());
+                failedBatch = null;
+                failedAttempts = 0;
+            } catch (RuntimeException e) {
+                failedWrites.incrementAndGet();
+                if (++failedAttempts >= MAX_ATTEMPTS) {
+                    lost.addAndGet(batch.size());
+                    failedBatch = null;
+                    failedAttempts = 0;
+                } else {
+                    failedBatch = batch;
+                }
+                return;
+            }
+        }
+    }
+
+    private List<AuditEvent> drain() {
+        List<AuditEvent> batch = new ArrayList<>();
+        AuditEvent event;
+        while (batch.size() < batchSize && (event = queue.poll()) != null) {
+            batch.add(event);
+        }
+        if (!batch.isEmpty()) {
+            queued.addAndGet(-batch.size());
+        }
+        return batch;
+    }
+
+    private void write(List<AuditEvent> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long[] newIds = ids.nextIds(AuditEvent.class, batch.size());
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                AuditEvent event = batch.get(i);
+                rows.add(new Object[]{newIds[i], Timestamp.valueOf(event.getOccurredAt()), event.getUsername(),
+                        event.getAction(), event.getEntityType(), event.getEntityId(), event.getHttpStatus(),
+                        event.getDetails()});
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queued", queued.get());
+        stats.put("capacity", capacity);
+        stats.put("recorded", recorded.get());
+        stats.put("waitedForCapacity", waited.get());
+        stats.put("dropped", dropped.get());
+        stats.put("written", written.get());
+        stats.put("failedWrites", failedWrites.get());
+        stats.put("lost", lost.get());
+        return stats;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+}
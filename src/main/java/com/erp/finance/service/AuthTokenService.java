@@ -0,0 +1,173 @@
+package com.erp.finance.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies HS256 JSON Web Tokens, so the password is checked with BCrypt once at
+ * login and later requests only cost an HMAC. Tokens carry the username, roles and a
+ * credential version, and expire after erp.auth.token-ttl-minutes. BearerTokenFilter
+ * reloads the user on every request, so role and status changes apply at the next
+ * request. The credential version is an HMAC of the password hash the token was issued
+ * against, so changing the password invalidates tokens issued before the change.
+ *
+ * The signing key is erp.auth.token-secret (Base64, at least 32 bytes). Without it a random
+ * key is generated at startup, and tokens stop working on restart or on other instances.
+ */
+@Service
+public class AuthTokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    // Mac instances are not thread-safe
+    private final ThreadLocal<Mac> macs;
+
+    public AuthTokenService(ObjectMapper objectMapper,
+                            @Value("${erp.auth.token-secret:}") String secret,
+                            @Value("${erp.auth.token-ttl-minutes:30}") long ttlMinutes) {
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = ttlMinutes * 60;
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+            if (keyBytes.length < 32) {
+                throw new IllegalStateException("erp.auth.token-secret must be at least 32 bytes");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * Signed token for an authenticated user whose stored password hash is {@code passwordHash}.
+     */
+    public String issue(Authentication authentication, String passwordHash) {
+        long now = Instant.now().getEpochSecond();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", authentication.getName());
+        claims.put("roles", authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+        claims.put("cv", credentialVersion(passwordHash));
+        claims.put("iat", now);
+        claims.put("exp", now + ttlSeconds);
+        String payload;
+        try {
+            payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write token claims", e);
+        }
+        String signingInput = HEADER + "." + payload;
+        return signingInput + "." + ENCODER.encodeToString(sign(signingInput));
+    }
+
+    /**
+     * Username, authorities and credential version of a valid, unexpired token; empty for
+     * anything else.
+     */
+    public Optional<Principal> verify(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot == firstDot || !token.substring(0, firstDot).equals(HEADER)) {
+            return Optional.empty();
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, lastDot)))) {
+                return Optional.empty();
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(token.substring(firstDot + 1, lastDot)));
+            if (!claims.path("exp").canConvertToLong()
+                    || claims.path("exp").asLong() <= Instant.now().getEpochSecond()
+                    || !claims.path("sub").isTextual()
+                    || !claims.path("cv").isTextual()) {
+                return Optional.empty();
+            }
+            List<String> roles = new ArrayList<>();
+            claims.path("roles").forEach(role -> roles.add(role.asText()));
+            return Optional.of(new Principal(claims.get("sub").asText(), roles, claims.get("cv").asText()));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * True when the token was issued against this password hash, i.e. the password has not
+     * changed since.
+     */
+    public boolean isCurrent(Principal principal, String passwordHash) {
+        return MessageDigest.isEqual(
+                principal.getCredentialVersion().getBytes(StandardCharsets.US_ASCII),
+                credentialVersion(passwordHash).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // keyed, so the token does not expose anything derived from the hash alone
+    private String credentialVersion(String passwordHash) {
+        byte[] mac = macs.get().doFinal(("cv:" + (passwordHash != null ? passwordHash : ""))
+                .getBytes(StandardCharsets.UTF_8));
+        return ENCODER.encodeToString(Arrays.copyOf(mac, 16));
+    }
+
+    private byte[] sign(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static class Principal {
+        private final String username;
+        private final List<String> authorities;
+        private final String credentialVersion;
+
+        Principal(String username, List<String> authorities, String credentialVersion) {
+            this.username = username;
+            this.authorities = authorities;
+            this.credentialVersion = credentialVersion;
+        }
+
+        public String getUsername() { return username; }
+        public List<String> getAuthorities() { return authorities; }
+        public String getCredentialVersion() { return credentialVersion; }
+    }
+}
@@ -0,0 +1,236 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.Account;
+import com.erp.finance.domain.AccountType;
+import com.erp.finance.domain.JournalStatus;
+import com.erp.finance.repository.JournalRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory balance deltas for the "accumulate" posting mode. Committed postings add their
+ * per-account deltas, in cents, to striped LongAdder cells, so concurrent postings to the
+ * same hot account never contend on a lock or a database row. A scheduled flusher drains
+ * the cells into the accounts and account_period_balance tables with batched
+ * "x = x + ?" increments.
+ *
+ * Database balances therefore trail committed postings by up to one flush interval, and
+ * deltas not yet flushed are lost if the process dies. Accumulate mode supports a single
+ * application instance only: each instance holds its own unflushed deltas, and nothing
+ * coordinates them.
+ *
+ * With erp.posting.rebuild-balances-on-startup (off by default) accounts.balance and the
+ * period snapshots are rebuilt from POSTED journal lines at startup, before any posting
+ * can run, which recovers deltas a crash lost. The rebuild replaces every stored balance,
+ * so balances not backed by posted journals, such as opening balances entered on the
+ * account directly, are reset to zero.
+ */
+@Component
+public class BalanceAccumulator {
+    private static final String ADD_TO_BALANCE_SQL = "UPDATE accounts SET balance = balance + ? WHERE id = ?";
+    private static final String ZERO_BALANCES_SQL = "UPDATE accounts SET balance = 0";
+    private static final String SET_BALANCE_SQL = "UPDATE accounts SET balance = ? WHERE id = ?";
+    private static final int SCALE = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PeriodBalanceService periodBalances;
+    private final JournalRepository journals;
+    private final AccountCache accountCache;
+    private final boolean rebuildOnStartup;
+
+    private final ConcurrentHashMap<Long, LongAdder> balances = new ConcurrentHashMap<>();
+    // [debit, credit] per (period, account)
+    private final ConcurrentHashMap<PeriodAccount, LongAdder[]> periodTotals = new ConcurrentHashMap<>();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedDeltas = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public BalanceAccumulator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              PeriodBalanceService periodBalances, JournalRepository journals,
+                              AccountCache accountCache,
+                              @Value("${erp.posting.balance-mode:direct}") String balanceMode,
+                              @Value("${erp.posting.rebuild-balances-on-startup:false}") boolean rebuildOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.periodBalances = periodBalances;
+        this.journals = journals;
+        this.accountCache = accountCache;
+        this.rebuildOnStartup = rebuildOnStartup && "accumulate".equalsIgnoreCase(balanceMode);
+    }
+
+    /**
+     * Recover deltas a crash lost before they were flushed.
+     */
+    @PostConstruct
+    void rebuildIfAccumulating() {
+        if (rebuildOnStartup) {
+            transactionTemplate.executeWithoutResult(status -> rebuildBalances());
+        }
+    }
+
+    /**
+     * Recompute accounts.balance and the period snapshots from POSTED journal lines,
+     * replacing what the tables hold. Accounts without posted lines get a zero balance.
+     */
+    void rebuildBalances() {
+        List<Object[]> args = new ArrayList<>();
+        for (Object[] row : journals.sumLinesByAccount(JournalStatus.POSTED)) {
+            Long accountId = (Long) row[0];
+            Optional<Account> account = accountCache.findById(accountId);
+            if (account.isEmpty()) continue;
+            BigDecimal debit = row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO;
+            BigDecimal credit = row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO;
+            AccountType type = account.get().getType();
+            BigDecimal balance = type == AccountType.ASSET || type == AccountType.EXPENSE
+                    ? debit.subtract(credit) : credit.subtract(debit);
+            args.add(new Object[]{balance, accountId});
+        }
+        jdbcTemplate.update(ZERO_BALANCES_SQL);
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(SET_BALANCE_SQL, args);
+        }
+        periodBalances.rebuild(null);
+        rebuilds.incrementAndGet();
+    }
+
+    /**
+     * Add balance deltas and period {debit, credit} totals, all already in cents.
+     */
+    public void add(Map<Long, Long> balanceDeltas, Map<String, Map<Long, long[]>> totals) {
+        balanceDeltas.forEach((accountId, cents) -> {
+            if (cents != 0) {
+                balances.computeIfAbsent(accountId, id -> new LongAdder()).add(cents);
+            }
+        });
+        totals.forEach((period, byAccount) -> byAccount.forEach((accountId, sums) -> {
+            LongAdder[] cells = periodTotals.computeIfAbsent(new PeriodAccount(period, accountId),
+                    key -> new LongAdder[]{new LongAdder(), new LongAdder()});
+            cells[0].add(sums[0]);
+            cells[1].add(sums[1]);
+        }));
+    }
+
+    /**
+     * Write accumulated deltas to the database. Each cell is drained with sum() then
+     * add(-sum), so increments that race with the flush stay in the cell for next time.
+     * If the write fails the drained amounts are added back.
+     */
+    @Scheduled(fixedDelayString = "${erp.posting.flush-interval-ms:200}")
+    public synchronized void flush() {
+        Map<Long, Long> drainedBalances = new TreeMap<>();
+        balances.forEach((accountId, cell) -> {
+            long cents = cell.sum();
+            if (cents != 0) {
+                cell.add(-cents);
+                drainedBalances.put(accountId, cents);
+            }
+        });
+        Map<PeriodAccount, long[]> drainedTotals = new HashMap<>();
+        periodTotals.forEach((key, cells) -> {
+            long debit = cells[0].sum();
+            long credit = cells[1].sum();
+            if (debit != 0 || credit != 0) {
+                cells[0].add(-debit);
+                cells[1].add(-credit);
+                drainedTotals.put(key, new long[]{debit, credit});
+            }
+        });
+        if (drainedBalances.isEmpty() && drainedTotals.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!drainedBalances.isEmpty()) {
+                    List<Object[]> args = new ArrayList<>(drainedBalances.size());
+                    drainedBalances.forEach((accountId, cents) ->
+                            args.add(new Object[]{BigDecimal.valueOf(cents, SCALE), accountId}));
+                    jdbcTemplate.batchUpdate(ADD_TO_BALANCE_SQL, args);
+                }
+                if (!drainedTotals.isEmpty()) {
+                    Map<String, Map<Long, BigDecimal[]>> totals = new TreeMap<>();
+                    drainedTotals.forEach((key, sums) -> totals
+                            .computeIfAbsent(key.period, p -> new TreeMap<>())
+                            .put(key.accountId, new BigDecimal[]{BigDecimal.valueOf(sums[0], SCALE), BigDecimal.valueOf(sums[1], SCALE)}));
+                    periodBalances.applyTotals(totals);
+                }
+            });
+            flushes.incrementAndGet();
+            flushedDeltas.addAndGet(drainedBalances.size() + drainedTotals.size());
+        } catch (RuntimeException e) {
+            failedFlushes.incrementAndGet();
+            drainedBalances.forEach((accountId, cents) ->
+                    balances.computeIfAbsent(accountId, id -> new LongAdder()).add(cents));
+            drainedTotals.forEach((key, sums) -> {
+                LongAdder[] cells = periodTotals.computeIfAbsent(key, k -> new LongAdder[]{new LongAdder(), new LongAdder()});
+                cells[0].add(sums[0]);
+                cells[1].add(sums[1]);
+            });
+        }
+    }
+
+    /**
+     * Amount not yet written to accounts.balance for this account.
+     */
+    public BigDecimal pendingBalance(Long accountId) {
+        LongAdder cell = balances.get(accountId);
+        return BigDecimal.valueOf(cell != null ? cell.sum() : 0L, SCALE);
+    }
+
+    public Map<String, Object> stats() {
+        long pendingAccounts = balances.values().stream().filter(cell -> cell.sum() != 0).count();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingAccounts", pendingAccounts);
+        stats.put("flushes", flushes.get());
+        stats.put("flushedDeltas", flushedDeltas.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("rebuilds", rebuilds.get());
+        return stats;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static final class PeriodAccount {
+        final String period;
+        final Long accountId;
+
+        PeriodAccount(String period, Long accountId) {
+            this.period = period;
+            this.accountId = accountId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PeriodAccount)) return false;
+            PeriodAccount other = (PeriodAccount) o;
+            return period.equals(other.period) && accountId.equals(other.accountId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(period, accountId);
+        }
+    }
+}
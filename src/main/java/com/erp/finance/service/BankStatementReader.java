@@ -0,0 +1,360 @@
+package com.erp.finance.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pull parser for bank statements. Each call to {@link #next()} reads just enough input
+ * for one transaction, so statements of any size are imported with constant memory.
+ */
+abstract class BankStatementReader implements Closeable {
+
+    enum Format { CSV, OFX, CAMT053 }
+
+    /**
+     * One parsed statement transaction, or the reason it could not be parsed.
+     */
+    static class Row {
+        final long rowNumber;
+        final LocalDate date;
+        final BigDecimal amount;
+        final String reference;
+        final String error;
+
+        private Row(long rowNumber, LocalDate date, BigDecimal amount, String reference, String error) {
+            this.rowNumber = rowNumber;
+            this.date = date;
+            this.amount = amount;
+            this.reference = reference;
+            this.error = error;
+        }
+
+        static Row parsed(long rowNumber, String date, String amount, String reference, DateParser dateParser) {
+            if (date == null || date.isBlank()) return failed(rowNumber, "Missing date");
+            if (amount == null || amount.isBlank()) return failed(rowNumber, "Missing amount");
+            LocalDate parsedDate;
+            try {
+                parsedDate = dateParser.parse(date.trim());
+            } catch (RuntimeException e) {
+                return failed(rowNumber, "Invalid date: " + date.trim());
+            }
+            BigDecimal parsedAmount;
+            try {
+                parsedAmount = new BigDecimal(amount.trim().replace(",", ""));
+            } catch (NumberFormatException e) {
+                return failed(rowNumber, "Invalid amount: " + amount.trim());
+            }
+            String ref = reference != null && !reference.isBlank() ? truncate(reference.trim()) : null;
+            return new Row(rowNumber, parsedDate, parsedAmount, ref, null);
+        }
+
+        static Row failed(long rowNumber, String error) {
+            return new Row(rowNumber, null, null, null, error);
+        }
+
+        boolean isValid() { return error == null; }
+
+        private static String truncate(String value) {
+            return value.length() > 255 ? value.substring(0, 255) : value;
+        }
+    }
+
+    interface DateParser {
+        LocalDate parse(String value);
+    }
+
+    static BankStatementReader open(Format format, InputStream in) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvReader(in);
+            case OFX:
+                return new OfxReader(in);
+            case CAMT053:
+                return new Camt053Reader(in);
+            default:
+                throw new IllegalArgumentException("Unsupported statement format: " + format);
+        }
+    }
+
+    /**
+     * @return the next transaction, or null at the end of the statement
+     */
+    abstract Row next() throws IOException;
+
+    /**
+     * CSV with columns date (yyyy-MM-dd), amount, reference. A header row naming the
+     * columns is optional; when present it may list them in any order.
+     */
+    static class CsvReader extends BankStatementReader {
+        private final BufferedReader reader;
+        private long lineNumber;
+        private int dateCol = 0;
+        private int amountCol = 1;
+        private int referenceCol = 2;
+        private boolean headerChecked;
+
+        CsvReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        Row next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                List<String> fields = split(line);
+                if (!headerChecked) {
+                    headerChecked = true;
+                    if (applyHeader(fields)) continue;
+                }
+                return Row.parsed(lineNumber, field(fields, dateCol), field(fields, amountCol),
+                        field(fields, referenceCol), LocalDate::parse);
+            }
+            return null;
+        }
+
+        private boolean applyHeader(List<String> fields) {
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                columns.put(fields.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("date") || !columns.containsKey("amount")) {
+                return false;
+            }
+            dateCol = columns.get("date");
+            amountCol = columns.get("amount");
+            referenceCol = columns.getOrDefault("reference", columns.getOrDefault("description", -1));
+            return true;
+        }
+
+        private static String field(List<String> fields, int index) {
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * OFX 1.x (SGML, closing tags optional) and 2.x (XML). Reads STMTTRN blocks using
+     * TRNAMT, DTPOSTED and FITID (falling back to NAME/MEMO for the reference).
+     */
+    static class OfxReader extends BankStatementReader {
+        private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+        private final Reader reader;
+        private long transactionNumber;
+        private int pending = -2; // -2: nothing buffered
+
+        OfxReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        Row next() throws IOException {
+            Map<String, String> fields = null;
+            String tag;
+            while ((tag = readTag()) != null) {
+                String name = tag.toUpperCase(Locale.ROOT);
+                if (name.equals("STMTTRN")) {
+                    fields = new HashMap<>();
+                } else if (name.equals("/STMTTRN")) {
+                    if (fields == null) continue;
+                    transactionNumber++;
+                    String reference = fields.getOrDefault("FITID", fields.getOrDefault("NAME", fields.get("MEMO")));
+                    return Row.parsed(transactionNumber, fields.get("DTPOSTED"), fields.get("TRNAMT"), reference,
+                            value -> LocalDate.parse(value.substring(0, 8), OFX_DATE));
+                } else if (fields != null && !name.startsWith("/")) {
+                    String value = readText().trim();
+                    if (!value.isEmpty()) {
+                        fields.put(name, value);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Skip to the next '<' and return the tag name, or null at end of input.
+         */
+        private String readTag() throws IOException {
+            int c;
+            while ((c = read()) != -1 && c != '<') {
+                // text outside the current element
+            }
+            if (c == -1) return null;
+            StringBuilder name = new StringBuilder();
+            while ((c = read()) != -1 && c != '>') {
+                name.append((char) c);
+            }
+            return name.toString().trim();
+        }
+
+        /**
+         * Element text up to (not including) the next '<'.
+         */
+        private String readText() throws IOException {
+            StringBuilder text = new StringBuilder();
+            int c;
+            while ((c = read()) != -1 && c != '<') {
+                text.append((char) c);
+            }
+            if (c == '<') pending = '<';
+            return text.toString();
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * ISO 20022 camt.053 bank-to-customer statements. Each Ntry becomes one row; the
+     * amount is negated for DBIT entries and the booking date (or value date) is used.
+     */
+    static class Camt053Reader extends BankStatementReader {
+        private final XMLStreamReader xml;
+        private long entryNumber;
+
+        Camt053Reader(InputStream in) throws IOException {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            try {
+                this.xml = factory.createXMLStreamReader(in, StandardCharsets.UTF_8.name());
+            } catch (XMLStreamException e) {
+                throw new IOException("Invalid camt.053 document: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        Row next() throws IOException {
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("Ntry")) {
+                        entryNumber++;
+                        return readEntry();
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw new IOException("Invalid camt.053 document: " + e.getMessage(), e);
+            }
+        }
+
+        private Row readEntry() throws XMLStreamException {
+            String amount = null;
+            String indicator = null;
+            String bookingDate = null;
+            String valueDate = null;
+            String reference = null;
+            String endToEndId = null;
+            // path of element names below Ntry
+            List<String> path = new ArrayList<>();
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    path.add(name);
+                    String parent = path.size() >= 2 ? path.get(path.size() - 2) : "";
+                    if (path.size() == 1 && name.equals("Amt")) {
+                        amount = xml.getElementText();
+                        path.remove(path.size() - 1);
+                    } else if (path.size() == 1 && name.equals("CdtDbtInd")) {
+                        indicator = xml.getElementText();
+                        path.remove(path.size() - 1);
+                    } else if (path.size() == 1 && (name.equals("AcctSvcrRef") || name.equals("NtryRef"))) {
+                        String text = xml.getElementText();
+                        if (reference == null || name.equals("AcctSvcrRef")) reference = text;
+                        path.remove(path.size() - 1);
+                    } else if (path.size() == 2 && (name.equals("Dt") || name.equals("DtTm"))
+                            && (parent.equals("BookgDt") || parent.equals("ValDt"))) {
+                        String text = xml.getElementText();
+                        if (parent.equals("BookgDt")) bookingDate = text; else valueDate = text;
+                        path.remove(path.size() - 1);
+                    } else if (name.equals("EndToEndId") && endToEndId == null) {
+                        endToEndId = xml.getElementText();
+                        path.remove(path.size() - 1);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (path.isEmpty()) break; // </Ntry>
+                    path.remove(path.size() - 1);
+                }
+            }
+            String date = bookingDate != null ? bookingDate : valueDate;
+            String signedAmount = amount;
+            if (amount != null && "DBIT".equalsIgnoreCase(indicator != null ? indicator.trim() : null)) {
+                signedAmount = "-" + amount.trim();
+            }
+            return Row.parsed(entryNumber, date, signedAmount, reference != null ? reference : endToEndId,
+                    value -> LocalDate.parse(value.length() > 10 ? value.substring(0, 10) : value));
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                xml.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -5,11 +5,17 @@ import com.erp.finance.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,10 +29,14 @@ public class BudgetService {
     private BudgetLineRepository budgetLineRepository;
     
     @Autowired
-    private AccountRepository accountRepository;
+    private AccountCache accountCache;
     
     @Autowired
-    private JournalRepository journalRepository;
+    private JournalLineRepository journalLineRepository;
+    
+    // Variance analyses by budget id, see calculateVarianceAnalysis
+    private final Map<Long, CachedAnalysis> analysisCache = new ConcurrentHashMap<>();
+    private final AtomicLong analysisVersion = new AtomicLong();
     
     public List<Budget> getAllBudgets() {
         return budgetRepository.findAll();
@@ -61,7 +71,7 @@ public class BudgetService {
                 line.setBudget(savedBudget);
                 
                 // Determine line type from account
-                Optional<Account> accountOpt = accountRepository.findById(line.getAccountId());
+                Optional<Account> accountOpt = accountCache.findById(line.getAccountId());
                 if (accountOpt.isPresent()) {
                     Account account = accountOpt.get();
                     line.setLineType(mapAccountTypeToLineType(account.getType()));
@@ -92,6 +102,7 @@ public class BudgetService {
         budget.setEndDate(budgetDetails.getEndDate());
         budget.setNotes(budgetDetails.getNotes());
         
+        evictAnalysis(id);
         return budgetRepository.save(budget);
     }
     
@@ -105,6 +116,7 @@ public class BudgetService {
         }
         
         budgetRepository.delete(budget);
+        evictAnalysis(id);
     }
     
     public Budget approveBudget(Long id, String approvedBy) {
@@ -167,12 +179,13 @@ public class BudgetService {
         }
         
         // Validate account exists
-        Account account = accountRepository.findById(budgetLine.getAccountId())
+        Account account = accountCache.findById(budgetLine.getAccountId())
             .orElseThrow(() -> new RuntimeException("Account not found with id: " + budgetLine.getAccountId()));
         
         budgetLine.setBudget(budget);
         budgetLine.setLineType(mapAccountTypeToLineType(account.getType()));
         
+        evictAnalysis(budgetId);
         return budgetLineRepository.save(budgetLine);
     }
     
@@ -189,6 +202,7 @@ public class BudgetService {
         line.setAmount(lineDetails.getAmount());
         line.setNotes(lineDetails.getNotes());
         
+        evictAnalysis(budget.getId());
         return budgetLineRepository.save(line);
     }
     
@@ -203,12 +217,23 @@ public class BudgetService {
         }
         
         budgetLineRepository.delete(line);
+        evictAnalysis(budget.getId());
     }
     
     /**
-     * Calculate variance analysis comparing budget to actual for a given period
+     * Calculate variance analysis comparing budget to actual for a given period.
+     * Actuals for every budget account come from one grouped query by account and month,
+     * which also feeds the per-line breakdown by the budget's period (monthly, quarterly
+     * or annual). Results are cached per budget until the budget changes or journals
+     * dated inside its range are posted.
      */
     public Map<String, Object> calculateVarianceAnalysis(Long budgetId) {
+        CachedAnalysis cached = analysisCache.get(budgetId);
+        if (cached != null) {
+            return cached.analysis;
+        }
+        long version = analysisVersion.get();
+        
         Budget budget = budgetRepository.findById(budgetId)
             .orElseThrow(() -> new RuntimeException("Budget not found with id: " + budgetId));
         
@@ -217,19 +242,25 @@ public class BudgetService {
         Map<String, Object> analysis = new HashMap<>();
         List<Map<String, Object>> lineAnalysis = new ArrayList<>();
         
-        BigDecimal totalBudgetRevenue = BigDecimal.ZERO;
-        BigDecimal totalActualRevenue = BigDecimal.ZERO;
-        BigDecimal totalBudgetExpense = BigDecimal.ZERO;
-        BigDecimal totalActualExpense = BigDecimal.ZERO;
+        Money totalBudgetRevenue = Money.zero();
+        Money totalActualRevenue = Money.zero();
+        Money totalBudgetExpense = Money.zero();
+        Money totalActualExpense = Money.zero();
+        
+        Map<String, Integer> bucketMonths = breakdownBuckets(budget);
+        Map<Long, Map<String, BigDecimal>> actuals = loadActuals(budget, budgetLines);
         
         for (BudgetLine line : budgetLines) {
             Map<String, Object> lineData = new HashMap<>();
             
-            Account account = accountRepository.findById(line.getAccountId()).orElse(null);
+            Account account = accountCache.findById(line.getAccountId()).orElse(null);
             if (account == null) continue;
             
-            // Get actual amount from account activity within budget period
-            BigDecimal actualAmount = calculateActualAmount(line.getAccountId(), budget.getStartDate(), budget.getEndDate());
+            // Actual amount from account activity within budget period, by breakdown bucket
+            Map<String, BigDecimal> actualByBucket = actuals.getOrDefault(line.getAccountId(), Collections.emptyMap());
+            Money actualTotal = Money.zero();
+            actualByBucket.values().forEach(actualTotal::add);
+            BigDecimal actualAmount = actualTotal.toBigDecimal();
             
             BigDecimal budgetAmount = line.getAmount();
             BigDecimal variance = actualAmount.subtract(budgetAmount);
@@ -246,16 +277,17 @@ public class BudgetService {
             lineData.put("variance", variance);
             lineData.put("variancePercent", variancePercent);
             lineData.put("status", determineVarianceStatus(line.getLineType(), variance));
+            lineData.put("breakdown", buildBreakdown(line, bucketMonths, actualByBucket));
             
             lineAnalysis.add(lineData);
             
             // Accumulate totals
             if (line.getLineType() == BudgetLine.LineType.REVENUE) {
-                totalBudgetRevenue = totalBudgetRevenue.add(budgetAmount);
-                totalActualRevenue = totalActualRevenue.add(actualAmount);
+                totalBudgetRevenue.add(budgetAmount);
+                totalActualRevenue.add(actualTotal);
             } else if (line.getLineType() == BudgetLine.LineType.EXPENSE) {
-                totalBudgetExpense = totalBudgetExpense.add(budgetAmount);
-                totalActualExpense = totalActualExpense.add(actualAmount);
+                totalBudgetExpense.add(budgetAmount);
+                totalActualExpense.add(actualTotal);
             }
         }
         
@@ -268,53 +300,178 @@ public class BudgetService {
         
         // Summary totals
         Map<String, Object> summary = new HashMap<>();
-        summary.put("totalBudgetRevenue", totalBudgetRevenue);
-        summary.put("totalActualRevenue", totalActualRevenue);
-        summary.put("revenueVariance", totalActualRevenue.subtract(totalBudgetRevenue));
-        summary.put("totalBudgetExpense", totalBudgetExpense);
-        summary.put("totalActualExpense", totalActualExpense);
-        summary.put("expenseVariance", totalActualExpense.subtract(totalBudgetExpense));
-        summary.put("budgetNetIncome", totalBudgetRevenue.subtract(totalBudgetExpense));
-        summary.put("actualNetIncome", totalActualRevenue.subtract(totalActualExpense));
-        summary.put("netIncomeVariance", totalActualRevenue.subtract(totalActualExpense).subtract(totalBudgetRevenue.subtract(totalBudgetExpense)));
+        Money budgetNetIncome = totalBudgetRevenue.copy().subtract(totalBudgetExpense);
+        Money actualNetIncome = totalActualRevenue.copy().subtract(totalActualExpense);
+        summary.put("totalBudgetRevenue", totalBudgetRevenue.toBigDecimal());
+        summary.put("totalActualRevenue", totalActualRevenue.toBigDecimal());
+        summary.put("revenueVariance", totalActualRevenue.copy().subtract(totalBudgetRevenue).toBigDecimal());
+        summary.put("totalBudgetExpense", totalBudgetExpense.toBigDecimal());
+        summary.put("totalActualExpense", totalActualExpense.toBigDecimal());
+        summary.put("expenseVariance", totalActualExpense.copy().subtract(totalBudgetExpense).toBigDecimal());
+        summary.put("budgetNetIncome", budgetNetIncome.toBigDecimal());
+        summary.put("actualNetIncome", actualNetIncome.toBigDecimal());
+        summary.put("netIncomeVariance", actualNetIncome.subtract(budgetNetIncome).toBigDecimal());
         
         analysis.put("summary", summary);
         
+        // Only cache if nothing was invalidated while we were computing
+        if (analysisVersion.get() == version) {
+            analysisCache.put(budgetId, new CachedAnalysis(budget.getStartDate(), budget.getEndDate(), analysis));
+        }
         return analysis;
     }
     
     /**
-     * Calculate actual amount for an account within a date range from journal entries
+     * Drop cached analyses of budgets whose date range contains newly posted journals.
+     * Touches only the cache, so it needs no transaction of its own (Spring refuses a
+     * method-level @Transactional other than REQUIRES_NEW on an after-commit listener)
      */
-    private BigDecimal calculateActualAmount(Long accountId, LocalDate startDate, LocalDate endDate) {
-        // Get all posted journals within the date range
-        List<JournalEntry> journals = journalRepository.findByDateBetweenAndStatus(startDate, endDate, JournalStatus.POSTED);
-        
-        BigDecimal total = BigDecimal.ZERO;
+    @TransactionalEventListener
+    public void onJournalPosted(JournalPostedEvent event) {
+        analysisVersion.incrementAndGet();
+        analysisCache.values().removeIf(cached -> event.overlaps(cached.startDate, cached.endDate));
+    }
+    
+    /**
+     * Drop cached analyses of budgets whose date range contains this date, e.g. after a
+     * posted journal was deleted; again after commit, so a concurrent read of the old
+     * data cannot re-populate them
+     */
+    public void ledgerChanged(LocalDate date) {
+        analysisVersion.incrementAndGet();
+        analysisCache.values().removeIf(cached -> covers(cached, date));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    analysisVersion.incrementAndGet();
+                    analysisCache.values().removeIf(cached -> covers(cached, date));
+                }
+            });
+        }
+    }
+    
+    private static boolean covers(CachedAnalysis cached, LocalDate date) {
+        return !date.isBefore(cached.startDate) && !date.isAfter(cached.endDate);
+    }
+    
+    /**
+     * Actual amounts per account and breakdown bucket for all accounts on the budget, in one query.
+     * Revenue is credit minus debit; every other account type is debit minus credit.
+     */
+    private Map<Long, Map<String, BigDecimal>> loadActuals(Budget budget, List<BudgetLine> budgetLines) {
+        Set<Long> accountIds = budgetLines.stream().map(BudgetLine::getAccountId).collect(Collectors.toSet());
+        Map<Long, Map<String, BigDecimal>> actuals = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return actuals;
+        }
+        Map<Long, Map<String, Money>> sums = new HashMap<>();
         
-        for (JournalEntry journal : journals) {
-            List<JournalLine> lines = journal.getLines();
+        List<Object[]> rows = journalLineRepository.sumByAccountAndMonth(
+            accountIds, budget.getStartDate(), budget.getEndDate(), JournalStatus.POSTED);
+        for (Object[] row : rows) {
+            Long accountId = (Long) row[0];
+            Account account = accountCache.findById(accountId).orElse(null);
+            if (account == null) continue;
             
-            for (JournalLine line : lines) {
-                if (line.getAccountId().equals(accountId)) {
-                    // For revenue accounts, credits increase (positive)
-                    // For expense accounts, debits increase (positive)
-                    Account account = accountRepository.findById(accountId).orElse(null);
-                    if (account != null) {
-                        if (account.getType() == AccountType.REVENUE) {
-                            total = total.add(line.getCredit()).subtract(line.getDebit());
-                        } else if (account.getType() == AccountType.EXPENSE) {
-                            total = total.add(line.getDebit()).subtract(line.getCredit());
-                        } else {
-                            // For assets, debits are positive
-                            total = total.add(line.getDebit()).subtract(line.getCredit());
-                        }
-                    }
-                }
+            BigDecimal debit = (BigDecimal) row[3];
+            BigDecimal credit = (BigDecimal) row[4];
+            String bucket = bucketKey(budget.getPeriod(), ((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+            Money amount = sums.computeIfAbsent(accountId, id -> new HashMap<>())
+                .computeIfAbsent(bucket, b -> Money.zero());
+            if (account.getType() == AccountType.REVENUE) {
+                amount.add(credit).subtract(debit);
+            } else {
+                amount.add(debit).subtract(credit);
             }
         }
-        
-        return total;
+        sums.forEach((accountId, byBucket) -> {
+            Map<String, BigDecimal> amounts = new HashMap<>();
+            byBucket.forEach((bucket, amount) -> amounts.put(bucket, amount.toBigDecimal()));
+            actuals.put(accountId, amounts);
+        });
+        return actuals;
+    }
+    
+    /**
+     * Breakdown buckets covered by the budget range, in order, with the number of months in each
+     */
+    private Map<String, Integer> breakdownBuckets(Budget budget) {
+        Map<String, Integer> buckets = new LinkedHashMap<>();
+        YearMonth end = YearMonth.from(budget.getEndDate());
+        for (YearMonth month = YearMonth.from(budget.getStartDate()); !month.isAfter(end); month = month.plusMonths(1)) {
+            buckets.merge(bucketKey(budget.getPeriod(), month.getYear(), month.getMonthValue()), 1, Integer::sum);
+        }
+        return buckets;
+    }
+    
+    /**
+     * Spread the line's budget over the buckets by months covered (remainder in the last bucket)
+     * and compare with the actuals of each bucket
+     */
+    private List<Map<String, Object>> buildBreakdown(BudgetLine line, Map<String, Integer> bucketMonths,
+                                                     Map<String, BigDecimal> actualByBucket) {
+        List<Map<String, Object>> breakdown = new ArrayList<>();
+        int totalMonths = bucketMonths.values().stream().mapToInt(Integer::intValue).sum();
+        BigDecimal remaining = line.getAmount();
+        int index = 0;
+        
+        for (Map.Entry<String, Integer> bucket : bucketMonths.entrySet()) {
+            index++;
+            BigDecimal budgetAmount = index == bucketMonths.size()
+                ? remaining
+                : line.getAmount().multiply(BigDecimal.valueOf(bucket.getValue()))
+                    .divide(BigDecimal.valueOf(totalMonths), 2, RoundingMode.HALF_UP);
+            remaining = remaining.subtract(budgetAmount);
+            BigDecimal actualAmount = actualByBucket.getOrDefault(bucket.getKey(), BigDecimal.ZERO);
+            
+            Map<String, Object> item = new HashMap<>();
+            item.put("period", bucket.getKey());
+            item.put("budgetAmount", budgetAmount);
+            item.put("actualAmount", actualAmount);
+            item.put("variance", actualAmount.subtract(budgetAmount));
+            breakdown.add(item);
+        }
+        return breakdown;
+    }
+    
+    private static String bucketKey(Budget.BudgetPeriod period, int year, int month) {
+        if (period == Budget.BudgetPeriod.MONTHLY) {
+            return String.format("%d-%02d", year, month);
+        } else if (period == Budget.BudgetPeriod.QUARTERLY) {
+            return year + "-Q" + ((month - 1) / 3 + 1);
+        }
+        return String.valueOf(year);
+    }
+    
+    /**
+     * Remove a budget's cached analysis now and again once the current transaction commits,
+     * so a concurrent read of the old data cannot re-populate it
+     */
+    private void evictAnalysis(Long budgetId) {
+        analysisVersion.incrementAndGet();
+        analysisCache.remove(budgetId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    analysisVersion.incrementAndGet();
+                    analysisCache.remove(budgetId);
+                }
+            });
+        }
+    }
+    
+    private static class CachedAnalysis {
+        final LocalDate startDate;
+        final LocalDate endDate;
+        final Map<String, Object> analysis;
+        
+        CachedAnalysis(LocalDate startDate, LocalDate endDate, Map<String, Object> analysis) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.analysis = analysis;
+        }
     }
     
     /**
@@ -0,0 +1,125 @@
+package com.erp.finance.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Separate concurrency limits for transactional writes, interactive reads and heavy
+ * analytics, so a burst of reports cannot take every request thread and database
+ * connection that posting needs. Work waits up to its class's queue timeout for a permit
+ * and is otherwise turned away (429 with Retry-After at the HTTP layer).
+ *
+ * Unless set explicitly, the read limit is sized from the connection pool
+ * (spring.datasource.hikari.maximum-pool-size, 10): what is left after the analytics limit
+ * and erp.bulkhead.write.reserved-connections (2), i.e. 5 by default. Reads are short, so
+ * they can use every connection the long-running classes and writes do not need. Reads and
+ * analytics together thereby stay below the pool, which leaves connections that only
+ * writes can use. Background report jobs take analytics permits too.
+ */
+@Service
+public class Bulkheads {
+
+    public enum Workload { WRITE, READ, ANALYTICS }
+
+    private final boolean enabled;
+    private final Map<Workload, Compartment> compartments = new EnumMap<>(Workload.class);
+
+    public Bulkheads(@Value("${erp.bulkhead.enabled:true}") boolean enabled,
+                     @Value("${erp.bulkhead.write.max-concurrent:20}") int writeLimit,
+                     @Value("${erp.bulkhead.write.queue-timeout-ms:2000}") long writeTimeoutMs,
+                     @Value("${erp.bulkhead.write.retry-after-seconds:1}") int writeRetryAfter,
+                     @Value("${erp.bulkhead.read.max-concurrent:0}") int readLimit,
+                     @Value("${erp.bulkhead.read.queue-timeout-ms:1000}") long readTimeoutMs,
+                     @Value("${erp.bulkhead.read.retry-after-seconds:1}") int readRetryAfter,
+                     @Value("${erp.bulkhead.analytics.max-concurrent:3}") int analyticsLimit,
+                     @Value("${erp.bulkhead.analytics.queue-timeout-ms:250}") long analyticsTimeoutMs,
+                     @Value("${erp.bulkhead.analytics.retry-after-seconds:5}") int analyticsRetryAfter,
+                     @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                     @Value("${erp.bulkhead.write.reserved-connections:2}") int writeReserve) {
+        this.enabled = enabled;
+        if (readLimit <= 0) {
+            // 0 (default): whatever the pool has left after analytics and the writes' reserve
+            readLimit = poolSize - Math.max(1, analyticsLimit) - Math.max(0, writeReserve);
+        }
+        compartments.put(Workload.WRITE, new Compartment(writeLimit, writeTimeoutMs, writeRetryAfter));
+        compartments.put(Workload.READ, new Compartment(readLimit, readTimeoutMs, readRetryAfter));
+        compartments.put(Workload.ANALYTICS, new Compartment(analyticsLimit, analyticsTimeoutMs, analyticsRetryAfter));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take a permit, waiting at most the class's queue timeout. False when none came free.
+     */
+    public boolean tryEnter(Workload workload) throws InterruptedException {
+        if (!enabled) return true;
+        Compartment compartment = compartments.get(workload);
+        if (compartment.permits.tryAcquire(compartment.queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+            compartment.admitted.incrementAndGet();
+            return true;
+        }
+        compartment.rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Take a permit, waiting as long as it takes; for background work that has no client waiting.
+     */
+    public void enter(Workload workload) throws InterruptedException {
+        if (!enabled) return;
+        Compartment compartment = compartments.get(workload);
+        compartment.permits.acquire();
+        compartment.admitted.incrementAndGet();
+    }
+
+    public void exit(Workload workload) {
+        if (!enabled) return;
+        compartments.get(workload).permits.release();
+    }
+
+    public int retryAfterSeconds(Workload workload) {
+        return compartments.get(workload).retryAfterSeconds;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        compartments.forEach((workload, compartment) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("maxConcurrent", compartment.limit);
+            entry.put("active", compartment.limit - compartment.permits.availablePermits());
+            entry.put("waiting", compartment.permits.getQueueLength());
+            entry.put("queueTimeoutMs", compartment.queueTimeoutMs);
+            entry.put("admitted", compartment.admitted.get());
+            entry.put("rejected", compartment.rejected.get());
+            stats.put(workload.name().toLowerCase(), entry);
+        });
+        return stats;
+    }
+
+    private static final class Compartment {
+        final int limit;
+        final long queueTimeoutMs;
+        final int retryAfterSeconds;
+        // fair, so waiting requests are admitted in arrival order
+        final Semaphore permits;
+        final AtomicLong admitted = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+
+        Compartment(int limit, long queueTimeoutMs, int retryAfterSeconds) {
+            this.limit = Math.max(1, limit);
+            this.queueTimeoutMs = Math.max(0, queueTimeoutMs);
+            this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+            this.permits = new Semaphore(this.limit, true);
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.JournalLine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Optional copy of the posted ledger in primitive columns, one row per journal line:
+ * account index (int), day number (int), net amount in cents (long) and journal id (long),
+ * plus the row numbers of closing entry lines. Reports scan the columns in parallel
+ * instead of loading entities, at 24 bytes per line.
+ *
+ * Loaded in the background at startup, from the snapshot file when one exists (then
+ * reconciled against the ids of POSTED journals, so only journals posted or deleted since
+ * the snapshot touch journal_lines) or from journal_lines otherwise. Committed postings are
+ * appended from {@link JournalPostedEvent}; appends are deduplicated by journal id, so a
+ * posting that lands while the ledger loads is counted exactly once. Rows below the row
+ * count are never modified, so queries and snapshot writes take the column arrays and row
+ * count under the lock and then scan without it. Until loaded, or if amounts are not whole
+ * cents, callers get Optional.empty().
+ *
+ * Enabled with {@code erp.columnar-ledger.enabled}; {@code erp.columnar-ledger.snapshot-path}
+ * names the memory-mapped snapshot, written after each load and at shutdown.
+ */
+@Service
+public class ColumnarLedger {
+    private static final String LINES_SQL =
+            "SELECT l.account_id, j.date, l.debit, l.credit, j.id, j.closing_entry " +
+            "FROM journal_lines l JOIN journals j ON j.id = l.journal_id WHERE j.status = 'POSTED'";
+    private static final String POSTED_IDS_SQL = "SELECT id FROM journals WHERE status = 'POSTED'";
+    private static final int ID_CHUNK = 1000;
+    private static final int SCAN_CHUNK = 1 << 20;
+
+    private static final long MAGIC = 0x45525043_4F4C5631L; // "ERPCOLV1"
+    private static final int HEADER_BYTES = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Path snapshotPath;
+
+    private final Object lock = new Object();
+    // guarded by lock
+    private Columns columns;
+    private List<List<Row>> pending;
+
+    private volatile boolean ready;
+    private volatile boolean unusable;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "columnar-ledger");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+    private volatile long lastLoadMs;
+    private volatile String lastLoadSource;
+
+    public ColumnarLedger(JdbcTemplate jdbcTemplate,
+                          @Value("${erp.columnar-ledger.enabled:false}") boolean enabled,
+                          @Value("${erp.columnar-ledger.snapshot-path:}") String snapshotPath) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.enabled = enabled;
+        this.snapshotPath = snapshotPath == null || snapshotPath.isBlank() ? null : Paths.get(snapshotPath);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    /**
+     * Reload in the background, e.g. after a posted journal was deleted. Deferred to
+     * after commit when called inside a transaction.
+     */
+    public void markStale() {
+        if (!enabled) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+    private void reload() {
+        synchronized (lock) {
+            ready = false;
+            if (pending == null) {
+                pending = new ArrayList<>();
+            }
+        }
+        loader.submit(this::load);
+    }
+
+    /**
+     * Net (debit - credit) movement per account dated within [startDate, endDate]; a null
+     * startDate means from the first posting. Closing entries can be left out, as income
+     * statements need.
+     */
+    public Optional<Map<Long, BigDecimal>> netMovements(LocalDate startDate, LocalDate endDate, boolean excludeClosing) {
+        int size;
+        int[] account;
+        int[] day;
+        long[] amount;
+        int[] closingRows;
+        int closingCount;
+        long[] accountIds;
+        synchronized (lock) {
+            if (!enabled || unusable || !ready) return Optional.empty();
+            size = columns.size;
+            account = columns.account;
+            day = columns.day;
+            amount = columns.amount;
+            closingRows = columns.closingRows;
+            closingCount = columns.closingCount;
+            accountIds = columns.accountIds;
+        }
+        queries.incrementAndGet();
+        int from = startDate != null ? (int) startDate.toEpochDay() : Integer.MIN_VALUE;
+        int to = (int) endDate.toEpochDay();
+        int accounts = accountIds.length;
+        int chunks = (size + SCAN_CHUNK - 1) / SCAN_CHUNK;
+
+        long[] totals = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    long[] sums = new long[accounts];
+                    int end = Math.min(size, (chunk + 1) * SCAN_CHUNK);
+                    for (int i = chunk * SCAN_CHUNK; i < end; i++) {
+                        int d = day[i];
+                        if (d >= from && d <= to) {
+                            sums[account[i]] += amount[i];
+                        }
+                    }
+                    return sums;
+                })
+                .reduce(new long[accounts], (a, b) -> {
+                    long[] merged = new long[accounts];
+                    for (int i = 0; i < accounts; i++) merged[i] = a[i] + b[i];
+                    return merged;
+                });
+        if (excludeClosing) {
+            // closing entries are a handful of rows, cheaper to take back out than to test every row
+            for (int k = 0; k < closingCount; k++) {
+                int i = closingRows[k];
+                if (day[i] >= from && day[i] <= to) {
+                    totals[account[i]] -= amount[i];
+                }
+            }
+        }
+
+        Map<Long, BigDecimal> result = new HashMap<>();
+        for (int i = 0; i < accounts; i++) {
+            if (totals[i] != 0) {
+                result.put(accountIds[i], BigDecimal.valueOf(totals[i], 2));
+            }
+        }
+        return Optional.of(result);
+    }
+
+    public Optional<Map<Long, BigDecimal>> balancesAsOf(LocalDate asOfDate) {
+        return netMovements(null, asOfDate, false);
+    }
+
+    @EventListener
+    public void onJournalPosted(JournalPostedEvent event) {
+        if (!enabled) return;
+        List<Row> rows = new ArrayList<>(event.getLines().size());
+        for (JournalLine line : event.getLines()) {
+            Long cents = Money.toMinorUnits(line.getDebit().subtract(line.getCredit()));
+            rows.add(new Row(line.getAccountId(), (int) line.getJournal().getDate().toEpochDay(),
+                    cents, line.getJournal().getId(), Boolean.TRUE.equals(line.getJournal().getClosingEntry())));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(rows);
+                }
+            });
+        } else {
+            append(rows);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (lock) {
+            stats.put("enabled", enabled);
+            stats.put("ready", ready);
+            stats.put("unusable", unusable);
+            stats.put("rows", columns != null ? columns.size : 0);
+            stats.put("accounts", columns != null ? columns.accountIds.length : 0);
+            stats.put("heapBytes", columns != null ? columns.heapBytes() : 0);
+        }
+        stats.put("loads", loads.get());
+        stats.put("lastLoadMs", lastLoadMs);
+        stats.put("lastLoadSource", lastLoadSource);
+        stats.put("appended", appended.get());
+        stats.put("queries", queries.get());
+        return stats;
+    }
+
+    private void append(List<Row> rows) {
+        synchronized (lock) {
+            if (unusable) return;
+            if (pending != null) {
+                pending.add(rows);
+            } else if (columns != null) {
+                appendTo(columns, rows);
+            }
+        }
+    }
+
+    // caller holds lock
+    private void appendTo(Columns c, List<Row> rows) {
+        for (Row row : rows) {
+            if (row.cents == null || row.journalId > Integer.MAX_VALUE) {
+                unusable = true;
+                return;
+            }
+        }
+        // every line of a journal arrives in one event, so a journal already present is skipped whole
+        BitSet seen = new BitSet();
+        for (Row row : rows) {
+            int journal = (int) row.journalId;
+            if (c.journals.get(journal) && !seen.get(journal)) continue;
+            seen.set(journal);
+            c.add(row.accountId, row.day, row.cents, row.journalId, row.closing);
+        }
+        c.journals.or(seen);
+        appended.addAndGet(rows.size());
+    }
+
+    private void load() {
+        long started = System.currentTimeMillis();
+        synchronized (lock) {
+            // postings committed from here on are buffered and applied to the new columns
+            ready = false;
+            if (pending == null) {
+                pending = new ArrayList<>();
+            }
+        }
+        try {
+            Columns loaded = null;
+            String source = "journal_lines";
+            if (snapshotPath != null && Files.exists(snapshotPath)) {
+                loaded = readSnapshot(snapshotPath);
+                if (loaded != null) {
+                    loaded = reconcile(loaded);
+                    source = "snapshot";
+                }
+            }
+            if (loaded == null) {
+                loaded = new Columns(1024);
+                readLines(loaded, LINES_SQL);
+            }
+            synchronized (lock) {
+                columns = loaded;
+                for (List<Row> rows : pending) {
+                    appendTo(columns, rows);
+                }
+                pending = null;
+                ready = !unusable;
+            }
+            loads.incrementAndGet();
+            lastLoadMs = System.currentTimeMillis() - started;
+            lastLoadSource = source;
+            writeSnapshot();
+        } catch (UnusableLedgerException e) {
+            synchronized (lock) {
+                unusable = true;
+                columns = null;
+                pending = null;
+            }
+        } catch (RuntimeException e) {
+            // stays unavailable until the next reload
+            synchronized (lock) {
+                columns = null;
+                pending = null;
+            }
+            lastLoadSource = "failed: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Drop snapshot rows of journals that are no longer POSTED and load the lines of
+     * journals posted since the snapshot was written.
+     */
+    private Columns reconcile(Columns snapshot) {
+        BitSet posted = new BitSet();
+        jdbcTemplate.query(POSTED_IDS_SQL, rs -> {
+            long id = rs.getLong(1);
+            if (id > Integer.MAX_VALUE) throw new UnusableLedgerException();
+            posted.set((int) id);
+        });
+
+        BitSet removed = (BitSet) snapshot.journals.clone();
+        removed.andNot(posted);
+        Columns result = snapshot;
+        if (!removed.isEmpty()) {
+            result = new Columns(snapshot.size);
+            result.accountIds = snapshot.accountIds;
+            result.accountIndex.putAll(snapshot.accountIndex);
+            for (int i = 0; i < snapshot.size; i++) {
+                if (removed.get((int) snapshot.journal[i])) continue;
+                result.addIndexed(snapshot.account[i], snapshot.day[i], snapshot.amount[i], snapshot.journal[i],
+                        Arrays.binarySearch(snapshot.closingRows, 0, snapshot.closingCount, i) >= 0);
+            }
+        }
+
+        BitSet added = (BitSet) posted.clone();
+        added.andNot(snapshot.journals);
+        List<Long> ids = new ArrayList<>(added.cardinality());
+        for (int id = added.nextSetBit(0); id >= 0; id = added.nextSetBit(id + 1)) {
+            ids.add((long) id);
+        }
+        for (int i = 0; i < ids.size(); i += ID_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + ID_CHUNK));
+            readLines(result, LINES_SQL + " AND j.id IN (" + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")",
+                    chunk.toArray());
+        }
+        return result;
+    }
+
+    private void readLines(Columns target, String sql, Object... args) {
+        jdbcTemplate.query(sql, rs -> {
+            BigDecimal debit = rs.getBigDecimal(3);
+            BigDecimal credit = rs.getBigDecimal(4);
+            Long cents = Money.toMinorUnits(
+                    (debit != null ? debit : BigDecimal.ZERO).subtract(credit != null ? credit : BigDecimal.ZERO));
+            long journalId = rs.getLong(5);
+            if (cents == null || journalId > Integer.MAX_VALUE) throw new UnusableLedgerException();
+            Date date = rs.getDate(2);
+            target.add(rs.getLong(1), (int) date.toLocalDate().toEpochDay(), cents, journalId, rs.getBoolean(6));
+        }, args);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loader.shutdownNow();
+        if (ready) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Write the loaded rows to the snapshot file through memory-mapped regions, one per
+     * column, via a temporary file renamed into place.
+     */
+    private void writeSnapshot() {
+        if (snapshotPath == null) return;
+        int size;
+        int[] account;
+        int[] day;
+        long[] amount;
+        long[] journal;
+        int[] closingRows;
+        long[] accountIds;
+        synchronized (lock) {
+            if (columns == null || unusable) return;
+            size = columns.size;
+            account = columns.account;
+            day = columns.day;
+            amount = columns.amount;
+            journal = columns.journal;
+            closingRows = Arrays.copyOf(columns.closingRows, columns.closingCount);
+            accountIds = columns.accountIds;
+        }
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long offset = 0;
+            MappedByteBuffer header = map(ch, FileChannel.MapMode.READ_WRITE, offset, HEADER_BYTES);
+            header.putLong(MAGIC).putInt(size).putInt(accountIds.length).putInt(closingRows.length);
+            offset += HEADER_BYTES;
+            map(ch, FileChannel.MapMode.READ_WRITE, offset, 8L * accountIds.length).asLongBuffer().put(accountIds);
+            offset += 8L * accountIds.length;
+            map(ch, FileChannel.MapMode.READ_WRITE, offset, 4L * size).asIntBuffer().put(account, 0, size);
+            offset += 4L * size;
+            map(ch, FileChannel.MapMode.READ_WRITE, offset, 4L * size).asIntBuffer().put(day, 0, size);
+            offset += 4L * size;
+            map(ch, FileChannel.MapMode.READ_WRITE, offset, 8L * size).asLongBuffer().put(amount, 0, size);
+            offset += 8L * size;
+            map(ch, FileChannel.MapMode.READ_WRITE, offset, 8L * size).asLongBuffer().put(journal, 0, size);
+            offset += 8L * size;
+            map(ch, FileChannel.MapMode.READ_WRITE, offset, 4L * closingRows.length).asIntBuffer().put(closingRows);
+            ch.force(true);
+        } catch (IOException e) {
+            return;
+        }
+        try {
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // keep the previous snapshot
+        }
+    }
+
+    // null when the file is not a readable snapshot
+    private static Columns readSnapshot(Path path) {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES) return null;
+            ByteBuffer header = map(ch, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getLong() != MAGIC) return null;
+            int size = header.getInt();
+            int accounts = header.getInt();
+            int closingCount = header.getInt();
+            long expected = HEADER_BYTES + 8L * accounts + 24L * size + 4L * closingCount;
+            if (size < 0 || accounts < 0 || closingCount < 0 || ch.size() != expected) return null;
+
+            Columns c = new Columns(Math.max(size, 1024));
+            long offset = HEADER_BYTES;
+            c.accountIds = new long[accounts];
+            map(ch, FileChannel.MapMode.READ_ONLY, offset, 8L * accounts).asLongBuffer().get(c.accountIds);
+            offset += 8L * accounts;
+            map(ch, FileChannel.MapMode.READ_ONLY, offset, 4L * size).asIntBuffer().get(c.account, 0, size);
+            offset += 4L * size;
+            map(ch, FileChannel.MapMode.READ_ONLY, offset, 4L * size).asIntBuffer().get(c.day, 0, size);
+            offset += 4L * size;
+            map(ch, FileChannel.MapMode.READ_ONLY, offset, 8L * size).asLongBuffer().get(c.amount, 0, size);
+            offset += 8L * size;
+            map(ch, FileChannel.MapMode.READ_ONLY, offset, 8L * size).asLongBuffer().get(c.journal, 0, size);
+            offset += 8L * size;
+            c.closingRows = new int[Math.max(closingCount, 16)];
+            map(ch, FileChannel.MapMode.READ_ONLY, offset, 4L * closingCount).asIntBuffer().get(c.closingRows, 0, closingCount);
+            c.closingCount = closingCount;
+            c.size = size;
+            for (int i = 0; i < accounts; i++) {
+                c.accountIndex.put(c.accountIds[i], i);
+            }
+            for (int i = 0; i < size; i++) {
+                c.journals.set((int) c.journal[i]);
+            }
+            return c;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel ch, FileChannel.MapMode mode, long offset, long length) throws IOException {
+        MappedByteBuffer buffer = ch.map(mode, offset, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Growable primitive columns. Rows are only ever appended; growing replaces the arrays.
+     */
+    private static final class Columns {
+        int size;
+        int[] account;
+        int[] day;
+        long[] amount;
+        long[] journal;
+        // ascending row numbers of closing entry lines
+        int[] closingRows = new int[16];
+        int closingCount;
+        BitSet journals = new BitSet();
+        long[] accountIds = new long[0];
+        final Map<Long, Integer> accountIndex = new HashMap<>();
+
+        Columns(int capacity) {
+            account = new int[capacity];
+            day = new int[capacity];
+            amount = new long[capacity];
+            journal = new long[capacity];
+        }
+
+        void add(long accountId, int dayNumber, long cents, long journalId, boolean closingEntry) {
+            Integer index = accountIndex.get(accountId);
+            if (index == null) {
+                index = accountIds.length;
+                accountIds = Arrays.copyOf(accountIds, index + 1);
+                accountIds[index] = accountId;
+                accountIndex.put(accountId, index);
+            }
+            addIndexed(index, dayNumber, cents, journalId, closingEntry);
+        }
+
+        void addIndexed(int accountIdx, int dayNumber, long cents, long journalId, boolean closingEntry) {
+            if (size == account.length) {
+                int capacity = Math.max(1024, size * 2);
+                account = Arrays.copyOf(account, capacity);
+                day = Arrays.copyOf(day, capacity);
+                amount = Arrays.copyOf(amount, capacity);
+                journal = Arrays.copyOf(journal, capacity);
+            }
+            account[size] = accountIdx;
+            day[size] = dayNumber;
+            amount[size] = cents;
+            journal[size] = journalId;
+            if (closingEntry) {
+                if (closingCount == closingRows.length) {
+                    closingRows = Arrays.copyOf(closingRows, closingCount * 2);
+                }
+                closingRows[closingCount++] = size;
+            }
+            journals.set((int) journalId);
+            size++;
+        }
+
+        long heapBytes() {
+            return 24L * account.length + 4L * closingRows.length + journals.size() / 8 + 8L * accountIds.length;
+        }
+    }
+
+    private static final class Row {
+        final long accountId;
+        final int day;
+        final Long cents;
+        final long journalId;
+        final boolean closing;
+
+        Row(long accountId, int day, Long cents, long journalId, boolean closing) {
+            this.accountId = accountId;
+            this.day = day;
+            this.cents = cents;
+            this.journalId = journalId;
+            this.closing = closing;
+        }
+    }
+
+    // amounts finer than cents or ids beyond int range; the ledger then stays disabled
+    private static final class UnusableLedgerException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,344 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.JournalLine;
+import com.erp.finance.domain.JournalStatus;
+import com.erp.finance.repository.JournalLineRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Net (debit - credit) movement of every account per day, in cents, held in one Fenwick
+ * tree per account over day numbers. Any [startDate, endDate] movement or as-of balance
+ * then costs two prefix sums per account, O(accounts x log days), however many lines the
+ * ledger holds.
+ *
+ * Built from POSTED lines at startup and updated from {@link JournalPostedEvent} once the
+ * posting commits. If a posting falls outside the indexed day range, or a posted journal
+ * is deleted, the index is marked stale and rebuilt on next use. While it cannot be used
+ * (stale, amounts finer than cents, or larger than erp.balance-index.max-cells) callers
+ * get Optional.empty() and fall back to queries.
+ */
+@Service
+public class DailyBalanceIndex {
+    private static final int SCALE = 2;
+    private static final int REBUILD_ATTEMPTS = 3;
+    private static final long COMMIT_WAIT_MS = 2000;
+
+    private final JournalLineRepository lines;
+    private final boolean enabled;
+    private final long maxCells;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by lock
+    private long baseDay;
+    private int days;
+    private Map<Long, long[]> trees = new HashMap<>();
+    private volatile boolean fresh;
+    // set when the ledger cannot be indexed (sub-cent amounts or too many cells); kept until restart
+    private volatile boolean unusable;
+
+    // postings that reached beforeCommit / finished completing, used to tell whether a
+    // rebuild query raced with a commit
+    private final AtomicLong commitsStarted = new AtomicLong();
+    private final AtomicLong commitsFinished = new AtomicLong();
+    private final Object rebuildLock = new Object();
+
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DailyBalanceIndex(JournalLineRepository lines,
+                             @Value("${erp.balance-index.enabled:true}") boolean enabled,
+                             @Value("${erp.balance-index.max-cells:20000000}") long maxCells) {
+        this.lines = lines;
+        this.enabled = enabled;
+        this.maxCells = maxCells;
+    }
+
+    @PostConstruct
+    void build() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Net (debit - credit) movement per account dated within [startDate, endDate].
+     * A null startDate means from the first posting.
+     */
+    public Optional<Map<Long, BigDecimal>> netMovements(LocalDate startDate, LocalDate endDate) {
+        if (!enabled || unusable || (!fresh && !rebuild())) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (!fresh) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            long from = startDate != null ? Math.max(startDate.toEpochDay() - baseDay, 0) : 0;
+            long to = Math.min(endDate.toEpochDay() - baseDay, days - 1);
+            Map<Long, BigDecimal> result = new HashMap<>();
+            if (to >= from) {
+                for (Map.Entry<Long, long[]> tree : trees.entrySet()) {
+                    long cents = prefix(tree.getValue(), (int) to) - (from > 0 ? prefix(tree.getValue(), (int) from - 1) : 0);
+                    if (cents != 0) {
+                        result.put(tree.getKey(), BigDecimal.valueOf(cents, SCALE));
+                    }
+                }
+            }
+            hits.incrementAndGet();
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Net (debit - credit) balance per account as of the end of asOfDate.
+     */
+    public Optional<Map<Long, BigDecimal>> balancesAsOf(LocalDate asOfDate) {
+        return netMovements(null, asOfDate);
+    }
+
+    /**
+     * Force a rebuild on next use, e.g. after a posted journal was deleted. Deferred to
+     * after commit when called inside a transaction, so the rebuild sees the change.
+     */
+    public void markStale() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fresh = false;
+                }
+            });
+        } else {
+            fresh = false;
+        }
+    }
+
+    @EventListener
+    public void onJournalPosted(JournalPostedEvent event) {
+        if (!enabled) return;
+        Map<Long, Map<Long, Long>> deltas = centsByAccountAndDay(event.getLines());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitsStarted.incrementAndGet();
+            try {
+                apply(deltas);
+            } finally {
+                commitsFinished.incrementAndGet();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean started;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                started = true;
+                commitsStarted.incrementAndGet();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!started) return;
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(deltas);
+                    }
+                } finally {
+                    commitsFinished.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("enabled", enabled);
+            stats.put("fresh", fresh);
+            stats.put("unusable", unusable);
+            stats.put("accounts", trees.size());
+            stats.put("firstDay", days > 0 ? LocalDate.ofEpochDay(baseDay) : null);
+            stats.put("lastDay", days > 0 ? LocalDate.ofEpochDay(baseDay + days - 1) : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("updates", updates.get());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    // null when any amount has finer precision than cents
+    private static Map<Long, Map<Long, Long>> centsByAccountAndDay(List<JournalLine> posted) {
+        Map<Long, Map<Long, Long>> deltas = new HashMap<>();
+        for (JournalLine line : posted) {
+            Long cents = Money.toMinorUnits(line.getDebit().subtract(line.getCredit()));
+            if (cents == null) return null;
+            deltas.computeIfAbsent(line.getAccountId(), a -> new HashMap<>())
+                    .merge(line.getJournal().getDate().toEpochDay(), cents, Long::sum);
+        }
+        return deltas;
+    }
+
+    private void apply(Map<Long, Map<Long, Long>> deltas) {
+        lock.writeLock().lock();
+        try {
+            if (!fresh) return;
+            if (deltas == null) {
+                fresh = false;
+                return;
+            }
+            for (Map<Long, Long> byDay : deltas.values()) {
+                for (Long day : byDay.keySet()) {
+                    if (day < baseDay || day >= baseDay + days) {
+                        // outside the indexed range: rebuild with a wider one
+                        fresh = false;
+                        return;
+                    }
+                }
+            }
+            deltas.forEach((accountId, byDay) -> {
+                long[] tree = trees.computeIfAbsent(accountId, id -> new long[days + 1]);
+                byDay.forEach((day, cents) -> add(tree, (int) (day - baseDay), cents));
+            });
+            updates.incrementAndGet();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reload from POSTED lines. The load is retried when a posting started committing while
+     * it ran, because that posting may or may not be in the query result and would then be
+     * counted twice or not at all. Returns false if the index could not be built.
+     */
+    private boolean rebuild() {
+        synchronized (rebuildLock) {
+            if (fresh) return true;
+            for (int attempt = 0; attempt < REBUILD_ATTEMPTS; attempt++) {
+                long started = commitsStarted.get();
+                if (!awaitCommits(started)) return false;
+
+                List<Object[]> rows = lines.sumByAccountAndDate(JournalStatus.POSTED);
+                Built built = load(rows);
+                if (built == null) {
+                    unusable = true;
+                    return false;
+                }
+
+                lock.writeLock().lock();
+                try {
+                    if (commitsStarted.get() != started) continue;
+                    baseDay = built.baseDay;
+                    days = built.days;
+                    trees = built.trees;
+                    fresh = true;
+                    rebuilds.incrementAndGet();
+                    return true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            return false;
+        }
+    }
+
+    private boolean awaitCommits(long started) {
+        long deadline = System.currentTimeMillis() + COMMIT_WAIT_MS;
+        while (commitsFinished.get() < started) {
+            if (System.currentTimeMillis() > deadline) return false;
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Trees over a day range spanning the postings plus a year before today and two years
+     * after, so day-to-day postings rarely fall outside it. Null if it would exceed
+     * erp.balance-index.max-cells or amounts are not whole cents.
+     */
+    private Built load(List<Object[]> rows) {
+        long today = LocalDate.now().toEpochDay();
+        long first = today - 366;
+        long last = today + 731;
+        for (Object[] row : rows) {
+            long day = ((LocalDate) row[1]).toEpochDay();
+            first = Math.min(first, day);
+            last = Math.max(last, day);
+        }
+        long span = last - first + 1;
+        Map<Long, long[]> loaded = new HashMap<>();
+        for (Object[] row : rows) {
+            Long accountId = (Long) row[0];
+            BigDecimal debit = row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO;
+            BigDecimal credit = row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO;
+            Long cents = Money.toMinorUnits(debit.subtract(credit));
+            if (cents == null) return null;
+            if (!loaded.containsKey(accountId) && (loaded.size() + 1) * span > maxCells) return null;
+            // point values first, turned into a Fenwick tree below
+            loaded.computeIfAbsent(accountId, id -> new long[(int) span + 1])[(int) (((LocalDate) row[1]).toEpochDay() - first) + 1] += cents;
+        }
+        for (long[] tree : loaded.values()) {
+            for (int i = 1; i <= span; i++) {
+                int parent = i + (i & -i);
+                if (parent <= span) {
+                    tree[parent] += tree[i];
+                }
+            }
+        }
+        return new Built(first, (int) span, loaded);
+    }
+
+    private static void add(long[] tree, int index, long cents) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += cents;
+        }
+    }
+
+    // sum of days [0, index]
+    private static long prefix(long[] tree, int index) {
+        long sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private static final class Built {
+        final long baseDay;
+        final int days;
+        final Map<Long, long[]> trees;
+
+        Built(long baseDay, int days, Map<Long, long[]> trees) {
+            this.baseDay = baseDay;
+            this.days = days;
+            this.trees = trees;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.User;
+import com.erp.finance.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticates against the users table. Resolved password hashes, roles and statuses are
+ * kept in a bounded LRU keyed by username, so HTTP Basic requests do not query the
+ * database each time. UserService evicts a user after committing a change to them; users
+ * that do not exist are not cached, so a newly created user can log in straight away.
+ *
+ * INACTIVE users are disabled and LOCKED users are locked. When the table is
+ * empty at startup the sysadmin/admin/viewer accounts are created
+ * (erp.auth.seed-default-users).
+ */
+@Service
+public class DatabaseUserDetailsService implements UserDetailsService {
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final boolean seedDefaultUsers;
+    private final int maxEntries;
+
+    // guarded by "this"
+    private final LinkedHashMap<String, Snapshot> entries;
+    // bumped by every eviction, so a load that raced with one is not cached
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DatabaseUserDetailsService(UserRepository userRepository,
+                                      PasswordEncoder passwordEncoder,
+                                      @Value("${erp.auth.seed-default-users:true}") boolean seedDefaultUsers,
+                                      @Value("${erp.auth.user-cache.max-entries:1000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.seedDefaultUsers = seedDefaultUsers;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > DatabaseUserDetailsService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * The accounts the in-memory configuration used to provide.
+     */
+    @PostConstruct
+    void seedDefaultUsers() {
+        if (!seedDefaultUsers || userRepository.count() > 0) {
+            return;
+        }
+        userRepository.saveAll(List.of(
+                seedUser("sysadmin", "sysadmin123", "System Administrator", User.UserRole.SYSTEM_ADMIN),
+                seedUser("admin", "admin123", "Accountant", User.UserRole.ACCOUNTANT),
+                seedUser("viewer", "viewer123", "Account Executive", User.UserRole.ACCOUNT_EXECUTIVE)));
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        Snapshot snapshot;
+        long loadGeneration;
+        synchronized (this) {
+            snapshot = entries.get(username);
+            loadGeneration = generation;
+        }
+        if (snapshot != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+            snapshot = new Snapshot(user);
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(username, snapshot);
+                }
+            }
+        }
+        // a fresh instance per call: authentication erases the password of the one it gets
+        return snapshot.toUserDetails();
+    }
+
+    /**
+     * Forget a cached user; deferred to after commit when called inside a transaction.
+     */
+    public void evict(String username) {
+        afterCommit(() -> {
+            synchronized (this) {
+                generation++;
+                entries.remove(username);
+            }
+        });
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        return stats;
+    }
+
+    private User seedUser(String username, String password, String fullName, User.UserRole role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode(password));
+        user.setFullName(fullName);
+        user.setEmail(username + "@erp.local");
+        user.setRole(role);
+        user.setCreatedDate(LocalDateTime.now());
+        return user;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * The user's row id, for code that must not key on the username, which can change;
+     * null when the authentication is not backed by a user from this service.
+     */
+    public static Long userId(Authentication authentication) {
+        Object principal = authentication != null ? authentication.getPrincipal() : null;
+        return principal instanceof AccountDetails ? ((AccountDetails) principal).getUserId() : null;
+    }
+
+    /**
+     * Spring Security's User plus the users row id.
+     */
+    public static final class AccountDetails extends org.springframework.security.core.userdetails.User {
+        private static final long serialVersionUID = 1L;
+
+        private final Long userId;
+
+        AccountDetails(Long userId, UserDetails details) {
+            super(details.getUsername(), details.getPassword(), details.isEnabled(), details.isAccountNonExpired(),
+                    details.isCredentialsNonExpired(), details.isAccountNonLocked(), details.getAuthorities());
+            this.userId = userId;
+        }
+
+        public Long getUserId() { return userId; }
+    }
+
+    private static final class Snapshot {
+        final Long id;
+        final String username;
+        final String passwordHash;
+        final User.UserRole role;
+        final User.UserStatus status;
+
+        Snapshot(User user) {
+            this.id = user.getId();
+            this.username = user.getUsername();
+            this.passwordHash = user.getPassword();
+            this.role = user.getRole();
+            this.status = user.getStatus();
+        }
+
+        UserDetails toUserDetails() {
+            return new AccountDetails(id, org.springframework.security.core.userdetails.User.builder()
+                    .username(username)
+                    .password(passwordHash)
+                    .roles(role.name())
+                    .disabled(status == User.UserStatus.INACTIVE)
+                    .accountLocked(status == User.UserStatus.LOCKED)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.*;
+import com.erp.finance.repository.DepreciationRunRepository;
+import com.erp.finance.repository.FixedAssetRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Month-end depreciation for every ACTIVE asset. Assets are read in id-ordered chunks and
+ * their charges computed in parallel; each chunk's asset updates, category totals and
+ * cursor are committed together. When all chunks are done, one journal per asset category
+ * (Dr 6000 Depreciation Expense / Cr 1590 Accumulated Depreciation) is written and posted
+ * in a single batch. A period is only ever depreciated once: assets already charged for
+ * it are skipped, and a run that failed part way resumes from its saved cursor.
+ */
+@Service
+public class DepreciationRunService {
+    private static final String UPDATE_ASSET_SQL =
+            "UPDATE fixed_assets SET accumulated_depreciation = ?, status = ?, last_depreciation_period = ? " +
+            "WHERE id = ? AND (last_depreciation_period IS NULL OR last_depreciation_period < ?)";
+
+    private final FixedAssetRepository fixedAssets;
+    private final DepreciationRunRepository runs;
+    private final FixedAssetService fixedAssetService;
+    private final PostingSequencer postingSequencer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    // runs are executed one at a time, in the background
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "depreciation-run");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Set<String> activePeriods = ConcurrentHashMap.newKeySet();
+
+    public DepreciationRunService(FixedAssetRepository fixedAssets,
+                                  DepreciationRunRepository runs,
+                                  FixedAssetService fixedAssetService,
+                                  PostingSequencer postingSequencer,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${erp.depreciation-run.chunk-size:1000}") int chunkSize) {
+        this.fixedAssets = fixedAssets;
+        this.runs = runs;
+        this.fixedAssetService = fixedAssetService;
+        this.postingSequencer = postingSequencer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Start (or resume) the run for a period. Returns the run as it stands; a completed
+     * run is returned unchanged. Depreciation is dated {@code date}, or the last day of
+     * the period when null.
+     */
+    public DepreciationRun startRun(String period, LocalDate date) {
+        YearMonth month = YearMonth.parse(period);
+        LocalDate depreciationDate = date != null ? date : month.atEndOfMonth();
+        if (!YearMonth.from(depreciationDate).equals(month)) {
+            throw new IllegalArgumentException("Depreciation date must fall within period " + period);
+        }
+
+        DepreciationRun run;
+        try {
+            run = transactionTemplate.execute(status -> {
+                DepreciationRun existing = runs.findByPeriod(period).orElse(null);
+                if (existing != null) {
+                    return existing;
+                }
+                DepreciationRun created = new DepreciationRun();
+                created.setPeriod(period);
+                created.setDepreciationDate(depreciationDate);
+                created.setStartedAt(LocalDateTime.now());
+                return runs.save(created);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // another request created the run for this period at the same time
+            run = runs.findByPeriod(period).orElseThrow(() -> e);
+        }
+
+        if (run.getStatus() != DepreciationRun.RunStatus.COMPLETED && activePeriods.add(period)) {
+            executor.submit(() -> {
+                try {
+                    execute(period);
+                } finally {
+                    activePeriods.remove(period);
+                }
+            });
+        }
+        return run;
+    }
+
+    public Optional<DepreciationRun> getRun(String period) {
+        return runs.findByPeriod(period);
+    }
+
+    public List<DepreciationRun> getAllRuns() {
+        return runs.findAll();
+    }
+
+    private void execute(String period) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                DepreciationRun run = runs.findByPeriod(period).orElseThrow();
+                run.setStatus(DepreciationRun.RunStatus.RUNNING);
+                run.setErrorMessage(null);
+            });
+            boolean more = true;
+            while (more) {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> processChunk(period)));
+            }
+            transactionTemplate.executeWithoutResult(status -> finish(period));
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> runs.findByPeriod(period).ifPresent(run -> {
+                run.setStatus(DepreciationRun.RunStatus.FAILED);
+                String message = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+                run.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+            }));
+        }
+    }
+
+    /**
+     * Depreciate the next chunk of assets after the run's cursor.
+     * @return false once there are no assets left
+     */
+    private boolean processChunk(String period) {
+        DepreciationRun run = runs.findByPeriod(period).orElseThrow();
+        List<FixedAsset> chunk = fixedAssets.findByStatusAndIdGreaterThanOrderByIdAsc(
+                FixedAsset.AssetStatus.ACTIVE, run.getLastAssetId(), PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return false;
+        }
+
+        LocalDate date = run.getDepreciationDate();
+        List<Charge> charges = chunk.parallelStream()
+                .filter(asset -> asset.getLastDepreciationPeriod() == null || asset.getLastDepreciationPeriod().compareTo(period) < 0)
+                .filter(asset -> !asset.getPurchaseDate().isAfter(date))
+                .map(asset -> charge(asset, date))
+                .collect(Collectors.toList());
+
+        List<Object[]> updates = new ArrayList<>(charges.size());
+        int skipped = 0;
+        for (Charge charge : charges) {
+            if (charge.amount == null) {
+                skipped++;
+                continue;
+            }
+            updates.add(new Object[]{charge.accumulated, charge.status.name(), period, charge.asset.getId(), period});
+        }
+        if (!updates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_ASSET_SQL, updates);
+            for (int i = 0, c = 0; i < charges.size(); i++) {
+                Charge charge = charges.get(i);
+                if (charge.amount == null) continue;
+                // a count of 0 means another run or a manual depreciation got there first
+                if (counts[c++] != 0 && charge.amount.signum() > 0) {
+                    run.getCategoryTotals().merge(charge.asset.getCategory(), charge.amount, BigDecimal::add);
+                    run.setTotalAmount(run.getTotalAmount().add(charge.amount));
+                    run.setAssetsDepreciated(run.getAssetsDepreciated() + 1);
+                }
+            }
+        }
+        run.setAssetsSkipped(run.getAssetsSkipped() + skipped);
+        run.setLastAssetId(chunk.get(chunk.size() - 1).getId());
+        return chunk.size() == chunkSize;
+    }
+
+    /**
+     * Write and post one journal per category, then mark the run complete.
+     */
+    private void finish(String period) {
+        DepreciationRun run = runs.findByPeriod(period).orElseThrow();
+        Account expenseAccount = fixedAssetService.findOrCreateAccount("6000", "Depreciation Expense", AccountType.EXPENSE);
+        Account accumDepAccount = fixedAssetService.findOrCreateAccount("1590", "Accumulated Depreciation", AccountType.ASSET);
+
+        List<JournalEntry> entries = new ArrayList<>();
+        for (Map.Entry<FixedAsset.AssetCategory, BigDecimal> total : new TreeMap<>(run.getCategoryTotals()).entrySet()) {
+            if (total.getValue().signum() == 0) continue;
+            String label = "Depreciation run " + period + ": " + total.getKey();
+
+            JournalEntry journal = new JournalEntry();
+            journal.setDate(run.getDepreciationDate());
+            journal.setPeriod(period);
+            journal.setStatus(JournalStatus.POSTED);
+
+            JournalLine expenseLine = new JournalLine();
+            expenseLine.setJournal(journal);
+            expenseLine.setAccountId(expenseAccount.getId());
+            expenseLine.setDebit(total.getValue());
+            expenseLine.setCredit(BigDecimal.ZERO);
+            expenseLine.setDescription(label);
+
+            JournalLine accumLine = new JournalLine();
+            accumLine.setJournal(journal);
+            accumLine.setAccountId(accumDepAccount.getId());
+            accumLine.setDebit(BigDecimal.ZERO);
+            accumLine.setCredit(total.getValue());
+            accumLine.setDescription(label);
+
+            journal.getLines().add(expenseLine);
+            journal.getLines().add(accumLine);
+            entries.add(journal);
+        }
+
+        if (!entries.isEmpty()) {
+            // Post to GL, in sequence with other postings
+            postingSequencer.postInCurrentTransaction(entries);
+            for (JournalEntry journal : entries) {
+                run.getJournalIds().add(journal.getId());
+            }
+        }
+        run.setStatus(DepreciationRun.RunStatus.COMPLETED);
+        run.setFinishedAt(LocalDateTime.now());
+    }
+
+    /**
+     * Charge for one asset, capped so book value never drops below salvage value.
+     * Returns a charge with a null amount when it cannot be computed (e.g. zero useful life).
+     */
+    private Charge charge(FixedAsset asset, LocalDate date) {
+        BigDecimal accumulated = asset.getAccumulatedDepreciation() != null ? asset.getAccumulatedDepreciation() : BigDecimal.ZERO;
+        BigDecimal salvage = asset.getSalvageValue() != null ? asset.getSalvageValue() : BigDecimal.ZERO;
+        BigDecimal amount;
+        try {
+            amount = fixedAssetService.calculateDepreciation(asset, date);
+        } catch (ArithmeticException | NullPointerException e) {
+            return new Charge(asset, null, accumulated, asset.getStatus());
+        }
+        BigDecimal remaining = asset.getPurchaseCost().subtract(accumulated).subtract(salvage).max(BigDecimal.ZERO);
+        amount = amount.min(remaining).max(BigDecimal.ZERO);
+
+        BigDecimal newAccumulated = accumulated.add(amount);
+        FixedAsset.AssetStatus status = asset.getPurchaseCost().subtract(newAccumulated).compareTo(salvage) <= 0
+                ? FixedAsset.AssetStatus.FULLY_DEPRECIATED
+                : FixedAsset.AssetStatus.ACTIVE;
+        return new Charge(asset, amount, newAccumulated, status);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class Charge {
+        final FixedAsset asset;
+        final BigDecimal amount;
+        final BigDecimal accumulated;
+        final FixedAsset.AssetStatus status;
+
+        Charge(FixedAsset asset, BigDecimal amount, BigDecimal accumulated, FixedAsset.AssetStatus status) {
+            this.asset = asset;
+            this.amount = amount;
+            this.accumulated = accumulated;
+            this.status = status;
+        }
+    }
+}
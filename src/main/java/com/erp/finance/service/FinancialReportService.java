@@ -20,6 +20,21 @@ public class FinancialReportService {
     @Autowired
     private JournalRepository journalRepository;
     
+    @Autowired
+    private JournalLineRepository journalLineRepository;
+    
+    @Autowired
+    private AccountLedgerService accountLedgerService;
+    
+    @Autowired
+    private PeriodCloseService periodCloseService;
+    
+    @Autowired
+    private DailyBalanceIndex dailyBalanceIndex;
+    
+    @Autowired
+    private ColumnarLedger columnarLedger;
+    
     /**
      * Generate Income Statement (Profit & Loss Statement)
      * Shows revenues and expenses for a period, resulting in net income/loss
@@ -29,15 +44,17 @@ public class FinancialReportService {
         
         List<Account> allAccounts = new ArrayList<>();
         accountRepository.findAll().forEach(allAccounts::add);
-        List<JournalEntry> journals = journalRepository.findByDateBetweenAndStatus(
-            startDate, endDate, JournalStatus.POSTED);
         
-        // Calculate account balances for the period
-        Map<Long, BigDecimal> accountBalances = calculateAccountBalances(journals);
+        // Calculate account balances for the period: frozen aggregates when it is made of
+        // closed months, else the columnar ledger if enabled, else a query
+        Map<Long, BigDecimal> accountBalances = periodCloseService.closedActivity(startDate, endDate)
+            .or(() -> columnarLedger.netMovements(startDate, endDate, true))
+            .orElseGet(() -> calculateAccountBalances(
+                journalLineRepository.sumByAccountBetween(startDate, endDate, JournalStatus.POSTED)));
         
         // Revenue section
         List<Map<String, Object>> revenues = new ArrayList<>();
-        BigDecimal totalRevenue = BigDecimal.ZERO;
+        Money totalRevenue = Money.zero();
         
         for (Account account : allAccounts) {
             if (account.getType() == AccountType.REVENUE) {
@@ -48,14 +65,14 @@ public class FinancialReportService {
                     item.put("accountName", account.getName());
                     item.put("amount", balance.abs());
                     revenues.add(item);
-                    totalRevenue = totalRevenue.add(balance.abs());
+                    totalRevenue.add(balance.abs());
                 }
             }
         }
         
         // Expense section
         List<Map<String, Object>> expenses = new ArrayList<>();
-        BigDecimal totalExpense = BigDecimal.ZERO;
+        Money totalExpense = Money.zero();
         
         for (Account account : allAccounts) {
             if (account.getType() == AccountType.EXPENSE) {
@@ -66,20 +83,20 @@ public class FinancialReportService {
                     item.put("accountName", account.getName());
                     item.put("amount", balance.abs());
                     expenses.add(item);
-                    totalExpense = totalExpense.add(balance.abs());
+                    totalExpense.add(balance.abs());
                 }
             }
         }
         
-        BigDecimal netIncome = totalRevenue.subtract(totalExpense);
+        BigDecimal netIncome = totalRevenue.copy().subtract(totalExpense).toBigDecimal();
         
         report.put("reportType", "Income Statement");
         report.put("startDate", startDate);
         report.put("endDate", endDate);
         report.put("revenues", revenues);
-        report.put("totalRevenue", totalRevenue);
+        report.put("totalRevenue", totalRevenue.toBigDecimal());
         report.put("expenses", expenses);
-        report.put("totalExpense", totalExpense);
+        report.put("totalExpense", totalExpense.toBigDecimal());
         report.put("netIncome", netIncome);
         
         return report;
@@ -94,15 +111,17 @@ public class FinancialReportService {
         
         List<Account> allAccounts = new ArrayList<>();
         accountRepository.findAll().forEach(allAccounts::add);
-        List<JournalEntry> journals = journalRepository.findByDateBetweenAndStatus(
-            LocalDate.of(2000, 1, 1), asOfDate, JournalStatus.POSTED);
         
-        // Calculate cumulative account balances up to the date
-        Map<Long, BigDecimal> accountBalances = calculateAccountBalances(journals);
+        // Calculate cumulative account balances up to the date (frozen at a closed month end, else the daily index)
+        Map<Long, BigDecimal> accountBalances = periodCloseService.closedBalances(asOfDate)
+            .or(() -> dailyBalanceIndex.balancesAsOf(asOfDate))
+            .or(() -> columnarLedger.balancesAsOf(asOfDate))
+            .orElseGet(() -> calculateAccountBalances(
+                journalLineRepository.sumByAccountUpTo(asOfDate, JournalStatus.POSTED)));
         
         // Assets section
         List<Map<String, Object>> assets = new ArrayList<>();
-        BigDecimal totalAssets = BigDecimal.ZERO;
+        Money totalAssets = Money.zero();
         
         for (Account account : allAccounts) {
             if (account.getType() == AccountType.ASSET) {
@@ -113,14 +132,14 @@ public class FinancialReportService {
                     item.put("accountName", account.getName());
                     item.put("amount", balance.abs());
                     assets.add(item);
-                    totalAssets = totalAssets.add(balance.abs());
+                    totalAssets.add(balance.abs());
                 }
             }
         }
         
         // Liabilities section
         List<Map<String, Object>> liabilities = new ArrayList<>();
-        BigDecimal totalLiabilities = BigDecimal.ZERO;
+        Money totalLiabilities = Money.zero();
         
         for (Account account : allAccounts) {
             if (account.getType() == AccountType.LIABILITY) {
@@ -131,14 +150,14 @@ public class FinancialReportService {
                     item.put("accountName", account.getName());
                     item.put("amount", balance.abs());
                     liabilities.add(item);
-                    totalLiabilities = totalLiabilities.add(balance.abs());
+                    totalLiabilities.add(balance.abs());
                 }
             }
         }
         
         // Equity section
         List<Map<String, Object>> equity = new ArrayList<>();
-        BigDecimal totalEquity = BigDecimal.ZERO;
+        Money totalEquity = Money.zero();
         
         for (Account account : allAccounts) {
             if (account.getType() == AccountType.EQUITY) {
@@ -149,7 +168,7 @@ public class FinancialReportService {
                     item.put("accountName", account.getName());
                     item.put("amount", balance.abs());
                     equity.add(item);
-                    totalEquity = totalEquity.add(balance.abs());
+                    totalEquity.add(balance.abs());
                 }
             }
         }
@@ -162,18 +181,18 @@ public class FinancialReportService {
             item.put("accountName", "Retained Earnings");
             item.put("amount", retainedEarnings.abs());
             equity.add(item);
-            totalEquity = totalEquity.add(retainedEarnings.abs());
+            totalEquity.add(retainedEarnings.abs());
         }
         
         report.put("reportType", "Balance Sheet");
         report.put("asOfDate", asOfDate);
         report.put("assets", assets);
-        report.put("totalAssets", totalAssets);
+        report.put("totalAssets", totalAssets.toBigDecimal());
         report.put("liabilities", liabilities);
-        report.put("totalLiabilities", totalLiabilities);
+        report.put("totalLiabilities", totalLiabilities.toBigDecimal());
         report.put("equity", equity);
-        report.put("totalEquity", totalEquity);
-        report.put("totalLiabilitiesAndEquity", totalLiabilities.add(totalEquity));
+        report.put("totalEquity", totalEquity.toBigDecimal());
+        report.put("totalLiabilitiesAndEquity", totalLiabilities.copy().add(totalEquity).toBigDecimal());
         
         return report;
     }
@@ -187,14 +206,16 @@ public class FinancialReportService {
         
         List<Account> allAccounts = new ArrayList<>();
         accountRepository.findAll().forEach(allAccounts::add);
-        List<JournalEntry> journals = journalRepository.findByDateBetweenAndStatus(
-            LocalDate.of(2000, 1, 1), asOfDate, JournalStatus.POSTED);
         
-        Map<Long, BigDecimal> accountBalances = calculateAccountBalances(journals);
+        Map<Long, BigDecimal> accountBalances = periodCloseService.closedBalances(asOfDate)
+            .or(() -> dailyBalanceIndex.balancesAsOf(asOfDate))
+            .or(() -> columnarLedger.balancesAsOf(asOfDate))
+            .orElseGet(() -> calculateAccountBalances(
+                journalLineRepository.sumByAccountUpTo(asOfDate, JournalStatus.POSTED)));
         
         List<Map<String, Object>> accounts = new ArrayList<>();
-        BigDecimal totalDebit = BigDecimal.ZERO;
-        BigDecimal totalCredit = BigDecimal.ZERO;
+        Money totalDebit = Money.zero();
+        Money totalCredit = Money.zero();
         
         for (Account account : allAccounts) {
             BigDecimal balance = accountBalances.getOrDefault(account.getId(), BigDecimal.ZERO);
@@ -212,11 +233,11 @@ public class FinancialReportService {
                     (!isDebitBalance && balance.compareTo(BigDecimal.ZERO) < 0)) {
                     item.put("debit", balance.abs());
                     item.put("credit", BigDecimal.ZERO);
-                    totalDebit = totalDebit.add(balance.abs());
+                    totalDebit.add(balance.abs());
                 } else {
                     item.put("debit", BigDecimal.ZERO);
                     item.put("credit", balance.abs());
-                    totalCredit = totalCredit.add(balance.abs());
+                    totalCredit.add(balance.abs());
                 }
                 
                 accounts.add(item);
@@ -226,8 +247,8 @@ public class FinancialReportService {
         report.put("reportType", "Trial Balance");
         report.put("asOfDate", asOfDate);
         report.put("accounts", accounts);
-        report.put("totalDebit", totalDebit);
-        report.put("totalCredit", totalCredit);
+        report.put("totalDebit", totalDebit.toBigDecimal());
+        report.put("totalCredit", totalCredit.toBigDecimal());
         report.put("isBalanced", totalDebit.compareTo(totalCredit) == 0);
         
         return report;
@@ -243,9 +264,9 @@ public class FinancialReportService {
         List<JournalEntry> journals = journalRepository.findByDateBetweenAndStatus(
             startDate, endDate, JournalStatus.POSTED);
         
-        BigDecimal operatingCashFlow = BigDecimal.ZERO;
-        BigDecimal investingCashFlow = BigDecimal.ZERO;
-        BigDecimal financingCashFlow = BigDecimal.ZERO;
+        Money operatingCashFlow = Money.zero();
+        Money investingCashFlow = Money.zero();
+        Money financingCashFlow = Money.zero();
         
         List<Map<String, Object>> operatingActivities = new ArrayList<>();
         List<Map<String, Object>> investingActivities = new ArrayList<>();
@@ -275,92 +296,50 @@ public class FinancialReportService {
                         String desc = line.getDescription().toLowerCase();
                         if (desc.contains("sales") || desc.contains("revenue") || desc.contains("expense")) {
                             operatingActivities.add(activity);
-                            operatingCashFlow = operatingCashFlow.add(cashChange);
+                            operatingCashFlow.add(cashChange);
                         } else if (desc.contains("asset") || desc.contains("investment") || desc.contains("equipment")) {
                             investingActivities.add(activity);
-                            investingCashFlow = investingCashFlow.add(cashChange);
+                            investingCashFlow.add(cashChange);
                         } else {
                             financingActivities.add(activity);
-                            financingCashFlow = financingCashFlow.add(cashChange);
+                            financingCashFlow.add(cashChange);
                         }
                     }
                 }
             }
         }
         
-        BigDecimal netCashFlow = operatingCashFlow.add(investingCashFlow).add(financingCashFlow);
+        BigDecimal netCashFlow = operatingCashFlow.copy().add(investingCashFlow).add(financingCashFlow).toBigDecimal();
         
         report.put("reportType", "Cash Flow Statement");
         report.put("startDate", startDate);
         report.put("endDate", endDate);
         report.put("operatingActivities", operatingActivities);
-        report.put("operatingCashFlow", operatingCashFlow);
+        report.put("operatingCashFlow", operatingCashFlow.toBigDecimal());
         report.put("investingActivities", investingActivities);
-        report.put("investingCashFlow", investingCashFlow);
+        report.put("investingCashFlow", investingCashFlow.toBigDecimal());
         report.put("financingActivities", financingActivities);
-        report.put("financingCashFlow", financingCashFlow);
+        report.put("financingCashFlow", financingCashFlow.toBigDecimal());
         report.put("netCashFlow", netCashFlow);
         
         return report;
     }
     
     /**
-     * Generate General Ledger Report for a specific account
+     * Generate General Ledger Report for a specific account, starting from its opening balance
      */
     public Map<String, Object> generateAccountLedger(Long accountId, LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> report = new HashMap<>();
-        
-        Account account = accountRepository.findById(accountId)
-            .orElseThrow(() -> new RuntimeException("Account not found"));
-        
-        List<JournalEntry> journals = journalRepository.findByDateBetweenAndStatus(
-            startDate, endDate, JournalStatus.POSTED);
-        
-        List<Map<String, Object>> transactions = new ArrayList<>();
-        BigDecimal runningBalance = BigDecimal.ZERO;
-        
-        for (JournalEntry journal : journals) {
-            for (JournalLine line : journal.getLines()) {
-                if (line.getAccountId().equals(accountId)) {
-                    Map<String, Object> transaction = new HashMap<>();
-                    transaction.put("date", journal.getDate());
-                    transaction.put("description", line.getDescription());
-                    transaction.put("debit", line.getDebit());
-                    transaction.put("credit", line.getCredit());
-                    
-                    BigDecimal change = line.getDebit().subtract(line.getCredit());
-                    runningBalance = runningBalance.add(change);
-                    transaction.put("balance", runningBalance);
-                    
-                    transactions.add(transaction);
-                }
-            }
-        }
-        
-        report.put("reportType", "Account Ledger");
-        report.put("accountCode", account.getCode());
-        report.put("accountName", account.getName());
-        report.put("accountType", account.getType());
-        report.put("startDate", startDate);
-        report.put("endDate", endDate);
-        report.put("transactions", transactions);
-        report.put("endingBalance", runningBalance);
-        
-        return report;
+        return accountLedgerService.getLedger(accountId, startDate, endDate);
     }
     
     /**
-     * Helper method to calculate account balances from journal entries
+     * Helper method to turn per-account debit/credit sums (aggregated in SQL) into net balances
      */
-    private Map<Long, BigDecimal> calculateAccountBalances(List<JournalEntry> journals) {
+    private Map<Long, BigDecimal> calculateAccountBalances(List<AccountActivity> activity) {
         Map<Long, BigDecimal> balances = new HashMap<>();
         
-        for (JournalEntry journal : journals) {
-            for (JournalLine line : journal.getLines()) {
-                Long accountId = line.getAccountId();
-                BigDecimal change = line.getDebit().subtract(line.getCredit());
-                balances.merge(accountId, change, BigDecimal::add);
-            }
+        for (AccountActivity row : activity) {
+            balances.put(row.getAccountId(), Money.net(row.getDebitTotal(), row.getCreditTotal()));
         }
         
         return balances;
@@ -373,20 +352,20 @@ public class FinancialReportService {
         List<Account> allAccounts = new ArrayList<>();
         accountRepository.findAll().forEach(allAccounts::add);
         
-        BigDecimal totalRevenue = BigDecimal.ZERO;
-        BigDecimal totalExpense = BigDecimal.ZERO;
+        Money totalRevenue = Money.zero();
+        Money totalExpense = Money.zero();
         
         for (Account account : allAccounts) {
             BigDecimal balance = accountBalances.getOrDefault(account.getId(), BigDecimal.ZERO);
             
             if (account.getType() == AccountType.REVENUE) {
-                totalRevenue = totalRevenue.add(balance.abs());
+                totalRevenue.add(balance.abs());
             } else if (account.getType() == AccountType.EXPENSE) {
-                totalExpense = totalExpense.add(balance.abs());
+                totalExpense.add(balance.abs());
             }
         }
         
-        return totalRevenue.subtract(totalExpense);
+        return totalRevenue.subtract(totalExpense).toBigDecimal();
     }
     
     /**
@@ -11,23 +11,27 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class FixedAssetService {
     
     private final FixedAssetRepository fixedAssetRepository;
     private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
     private final JournalRepository journalRepository;
-    private final PostingService postingService;
+    private final PostingSequencer postingSequencer;
     
     public FixedAssetService(FixedAssetRepository fixedAssetRepository,
                             AccountRepository accountRepository,
+                            AccountCache accountCache,
                             JournalRepository journalRepository,
-                            PostingService postingService) {
+                            PostingSequencer postingSequencer) {
         this.fixedAssetRepository = fixedAssetRepository;
         this.accountRepository = accountRepository;
+        this.accountCache = accountCache;
         this.journalRepository = journalRepository;
-        this.postingService = postingService;
+        this.postingSequencer = postingSequencer;
     }
     
     public List<FixedAsset> getAllAssets() {
@@ -99,6 +103,7 @@ public class FixedAssetService {
         if (netBookValue.compareTo(asset.getSalvageValue()) <= 0) {
             asset.setStatus(FixedAsset.AssetStatus.FULLY_DEPRECIATED);
         }
+        asset.setLastDepreciationPeriod(depreciationDate.format(DateTimeFormatter.ofPattern("yyyy-MM")));
         
         fixedAssetRepository.save(asset);
         
@@ -133,7 +138,7 @@ public class FixedAssetService {
         // Debit: Fixed Asset Account (increase asset)
         // Credit: Cash/Bank (decrease asset)
         
-        Account assetAccount = accountRepository.findById(asset.getAccountId())
+        Account assetAccount = accountCache.findById(asset.getAccountId())
                 .orElseThrow(() -> new RuntimeException("Asset account not found"));
         Account cashAccount = findOrCreateAccount("1000", "Cash and Bank", AccountType.ASSET);
         
@@ -164,8 +169,7 @@ public class FixedAssetService {
         journalRepository.save(journal);
         
         // Post to GL
-        postingService.applyLineToAccount(assetLine);
-        postingService.applyLineToAccount(cashLine);
+        postingSequencer.postAfterCommit(journal);
     }
     
     private void createDepreciationJournalEntry(FixedAsset asset, BigDecimal amount, LocalDate date) {
@@ -202,8 +206,7 @@ public class FixedAssetService {
         journalRepository.save(journal);
         
         // Post to GL
-        postingService.applyLineToAccount(expenseLine);
-        postingService.applyLineToAccount(accumLine);
+        postingSequencer.postAfterCommit(journal);
     }
     
     private void createDisposalJournalEntry(FixedAsset asset) {
@@ -212,7 +215,7 @@ public class FixedAssetService {
                 .subtract(asset.getAccumulatedDepreciation());
         BigDecimal gainLoss = asset.getDisposalAmount().subtract(netBookValue);
         
-        Account assetAccount = accountRepository.findById(asset.getAccountId())
+        Account assetAccount = accountCache.findById(asset.getAccountId())
                 .orElseThrow(() -> new RuntimeException("Asset account not found"));
         Account accumDepAccount = findOrCreateAccount("1590", "Accumulated Depreciation", AccountType.ASSET);
         Account cashAccount = findOrCreateAccount("1000", "Cash and Bank", AccountType.ASSET);
@@ -272,18 +275,15 @@ public class FixedAssetService {
             
             gainLossLine.setAccountId(gainLossAccount.getId());
             journal.getLines().add(gainLossLine);
-            postingService.applyLineToAccount(gainLossLine);
         }
         
         journalRepository.save(journal);
         
         // Post to GL
-        postingService.applyLineToAccount(cashLine);
-        postingService.applyLineToAccount(accumLine);
-        postingService.applyLineToAccount(assetLine);
+        postingSequencer.postAfterCommit(journal);
     }
     
-    private BigDecimal calculateDepreciation(FixedAsset asset, LocalDate depreciationDate) {
+    BigDecimal calculateDepreciation(FixedAsset asset, LocalDate depreciationDate) {
         if (asset.getDepreciationMethod() == FixedAsset.DepreciationMethod.STRAIGHT_LINE) {
             return calculateStraightLineDepreciation(asset);
         } else if (asset.getDepreciationMethod() == FixedAsset.DepreciationMethod.DECLINING_BALANCE) {
@@ -323,11 +323,10 @@ public class FixedAssetService {
         return prefix + "-" + timestamp;
     }
     
-    private Account findOrCreateAccount(String code, String name, AccountType type) {
-        for (Account account : accountRepository.findAll()) {
-            if (account.getCode().equals(code)) {
-                return account;
-            }
+    Account findOrCreateAccount(String code, String name, AccountType type) {
+        Optional<Account> existing = accountCache.findByCode(code);
+        if (existing.isPresent()) {
+            return existing.get();
         }
         
         Account newAccount = new Account();
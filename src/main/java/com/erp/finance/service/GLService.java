@@ -1,106 +1,127 @@
 package com.erp.finance.service;
 
 import com.erp.finance.domain.*;
-import com.erp.finance.repository.AccountRepository;
+import com.erp.finance.repository.AccountPeriodBalanceRepository;
+import com.erp.finance.repository.ClosedPeriodBalanceRepository;
 import com.erp.finance.repository.JournalRepository;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class GLService {
     private final JournalRepository journals;
-    private final AccountRepository accounts;
+    private final AccountCache accounts;
+    private final AccountPeriodBalanceRepository periodBalances;
+    private final ClosedPeriodBalanceRepository closedBalances;
+    private final PeriodCloseService periodClose;
+    private final DailyBalanceIndex balanceIndex;
 
-    public GLService(JournalRepository journals, AccountRepository accounts) {
+    public GLService(JournalRepository journals, AccountCache accounts,
+                     AccountPeriodBalanceRepository periodBalances,
+                     ClosedPeriodBalanceRepository closedBalances,
+                     PeriodCloseService periodClose,
+                     DailyBalanceIndex balanceIndex) {
         this.journals = journals;
         this.accounts = accounts;
+        this.periodBalances = periodBalances;
+        this.closedBalances = closedBalances;
+        this.periodClose = periodClose;
+        this.balanceIndex = balanceIndex;
     }
 
     public TrialBalance computeTrialBalance(String period) {
-        BigDecimal assets = BigDecimal.ZERO;
-        BigDecimal liabilities = BigDecimal.ZERO;
-        BigDecimal equity = BigDecimal.ZERO;
-        BigDecimal revenue = BigDecimal.ZERO;
-        BigDecimal expenses = BigDecimal.ZERO;
+        Money assets = Money.zero();
+        Money liabilities = Money.zero();
+        Money equity = Money.zero();
+        Money revenue = Money.zero();
+        Money expenses = Money.zero();
 
-        List<JournalEntry> posted = journals.findByPeriodAndStatus(period, JournalStatus.POSTED);
-        for (JournalEntry je : posted) {
-            for (JournalLine line : je.getLines()) {
-                Optional<Account> opt = accounts.findById(line.getAccountId());
-                if (opt.isEmpty()) continue;
-                Account acct = opt.get();
-                AccountType type = acct.getType();
-                BigDecimal effect;
-                // For assets & expenses: debit increases balance; credit decreases
-                // For liabilities, equity, revenue: credit increases balance; debit decreases
-                if (type == AccountType.ASSET) {
-                    effect = line.getDebit().subtract(line.getCredit());
-                    assets = assets.add(effect);
-                } else if (type == AccountType.EXPENSE) {
-                    effect = line.getDebit().subtract(line.getCredit());
-                    expenses = expenses.add(effect);
-                } else if (type == AccountType.LIABILITY) {
-                    effect = line.getCredit().subtract(line.getDebit());
-                    liabilities = liabilities.add(effect);
-                } else if (type == AccountType.EQUITY) {
-                    effect = line.getCredit().subtract(line.getDebit());
-                    equity = equity.add(effect);
-                } else if (type == AccountType.REVENUE) {
-                    effect = line.getCredit().subtract(line.getDebit());
-                    revenue = revenue.add(effect);
-                }
+        // Per-type totals come straight from the account_period_balance snapshots,
+        // or from the frozen aggregates once the period is closed
+        List<Object[]> rows = periodClose.isClosed(period)
+                ? closedBalances.sumByAccountTypeForPeriod(period)
+                : periodBalances.sumByAccountTypeForPeriod(period);
+        for (Object[] row : rows) {
+            AccountType type = (AccountType) row[0];
+            BigDecimal debit = (BigDecimal) row[1];
+            BigDecimal credit = (BigDecimal) row[2];
+            // For assets & expenses: debit increases balance; credit decreases
+            // For liabilities, equity, revenue: credit increases balance; debit decreases
+            if (type == AccountType.ASSET) {
+                assets.add(debit).subtract(credit);
+            } else if (type == AccountType.EXPENSE) {
+                expenses.add(debit).subtract(credit);
+            } else if (type == AccountType.LIABILITY) {
+                liabilities.add(credit).subtract(debit);
+            } else if (type == AccountType.EQUITY) {
+                equity.add(credit).subtract(debit);
+            } else if (type == AccountType.REVENUE) {
+                revenue.add(credit).subtract(debit);
             }
         }
         // Revenue and Expenses are part of Equity (Retained Earnings)
         // Accounting Equation: Assets = Liabilities + Equity + (Revenue - Expenses)
         // Or: Assets + Expenses = Liabilities + Equity + Revenue
-        BigDecimal totalEquity = equity.add(revenue).subtract(expenses);
-        boolean equationOk = assets.compareTo(liabilities.add(totalEquity)) == 0;
-        return new TrialBalance(assets, liabilities, totalEquity, revenue, expenses, equationOk);
+        return toTrialBalance(assets, liabilities, equity, revenue, expenses);
     }
 
     public TrialBalance computeTrialBalanceByDateRange(LocalDate startDate, LocalDate endDate) {
-        BigDecimal assets = BigDecimal.ZERO;
-        BigDecimal liabilities = BigDecimal.ZERO;
-        BigDecimal equity = BigDecimal.ZERO;
-        BigDecimal revenue = BigDecimal.ZERO;
-        BigDecimal expenses = BigDecimal.ZERO;
+        Money assets = Money.zero();
+        Money liabilities = Money.zero();
+        Money equity = Money.zero();
+        Money revenue = Money.zero();
+        Money expenses = Money.zero();
+
+        // Net (debit - credit) per account from the daily index, or from the journals when it is unavailable
+        Map<Long, BigDecimal> movements = balanceIndex.netMovements(startDate, endDate)
+                .orElseGet(() -> netMovementsFromJournals(startDate, endDate));
+        for (Map.Entry<Long, BigDecimal> movement : movements.entrySet()) {
+            Optional<Account> opt = accounts.findById(movement.getKey());
+            if (opt.isEmpty()) continue;
+            AccountType type = opt.get().getType();
+            BigDecimal net = movement.getValue();
+            // For assets & expenses: debit increases balance; credit decreases
+            // For liabilities, equity, revenue: credit increases balance; debit decreases
+            if (type == AccountType.ASSET) {
+                assets.add(net);
+            } else if (type == AccountType.EXPENSE) {
+                expenses.add(net);
+            } else if (type == AccountType.LIABILITY) {
+                liabilities.subtract(net);
+            } else if (type == AccountType.EQUITY) {
+                equity.subtract(net);
+            } else if (type == AccountType.REVENUE) {
+                revenue.subtract(net);
+            }
+        }
+        return toTrialBalance(assets, liabilities, equity, revenue, expenses);
+    }
+
+    private static TrialBalance toTrialBalance(Money assets, Money liabilities, Money equity,
+                                               Money revenue, Money expenses) {
+        Money totalEquity = equity.copy().add(revenue).subtract(expenses);
+        boolean equationOk = assets.compareTo(liabilities.copy().add(totalEquity)) == 0;
+        return new TrialBalance(assets.toBigDecimal(), liabilities.toBigDecimal(), totalEquity.toBigDecimal(),
+                revenue.toBigDecimal(), expenses.toBigDecimal(), equationOk);
+    }
 
-        List<JournalEntry> posted = journals.findByDateBetweenAndStatus(startDate, endDate, JournalStatus.POSTED);
-        for (JournalEntry je : posted) {
+    private Map<Long, BigDecimal> netMovementsFromJournals(LocalDate startDate, LocalDate endDate) {
+        Map<Long, Money> movements = new HashMap<>();
+        for (JournalEntry je : journals.findByDateBetweenAndStatus(startDate, endDate, JournalStatus.POSTED)) {
             for (JournalLine line : je.getLines()) {
-                Optional<Account> opt = accounts.findById(line.getAccountId());
-                if (opt.isEmpty()) continue;
-                Account acct = opt.get();
-                AccountType type = acct.getType();
-                BigDecimal effect;
-                // For assets & expenses: debit increases balance; credit decreases
-                // For liabilities, equity, revenue: credit increases balance; debit decreases
-                if (type == AccountType.ASSET) {
-                    effect = line.getDebit().subtract(line.getCredit());
-                    assets = assets.add(effect);
-                } else if (type == AccountType.EXPENSE) {
-                    effect = line.getDebit().subtract(line.getCredit());
-                    expenses = expenses.add(effect);
-                } else if (type == AccountType.LIABILITY) {
-                    effect = line.getCredit().subtract(line.getDebit());
-                    liabilities = liabilities.add(effect);
-                } else if (type == AccountType.EQUITY) {
-                    effect = line.getCredit().subtract(line.getDebit());
-                    equity = equity.add(effect);
-                } else if (type == AccountType.REVENUE) {
-                    effect = line.getCredit().subtract(line.getDebit());
-                    revenue = revenue.add(effect);
-                }
+                movements.computeIfAbsent(line.getAccountId(), id -> Money.zero())
+                        .add(line.getDebit()).subtract(line.getCredit());
             }
         }
-        BigDecimal totalEquity = equity.add(revenue).subtract(expenses);
-        boolean equationOk = assets.compareTo(liabilities.add(totalEquity)) == 0;
-        return new TrialBalance(assets, liabilities, totalEquity, revenue, expenses, equationOk);
+        Map<Long, BigDecimal> result = new HashMap<>();
+        movements.forEach((accountId, net) -> result.put(accountId, net.toBigDecimal()));
+        return result;
     }
 
     public static class TrialBalance {
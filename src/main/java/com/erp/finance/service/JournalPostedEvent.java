@@ -0,0 +1,41 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.JournalLine;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Published by PostingService for every batch of posted journals. Listeners that cache
+ * ledger-derived results use {@code @TransactionalEventListener} so they only react once
+ * the posting has committed.
+ */
+public class JournalPostedEvent {
+    private final List<JournalLine> lines;
+    private final LocalDate minDate;
+    private final LocalDate maxDate;
+
+    public JournalPostedEvent(List<JournalLine> lines) {
+        this.lines = List.copyOf(lines);
+        LocalDate min = null;
+        LocalDate max = null;
+        for (JournalLine line : lines) {
+            LocalDate date = line.getJournal().getDate();
+            if (min == null || date.isBefore(min)) min = date;
+            if (max == null || date.isAfter(max)) max = date;
+        }
+        this.minDate = min;
+        this.maxDate = max;
+    }
+
+    public List<JournalLine> getLines() { return lines; }
+    public LocalDate getMinDate() { return minDate; }
+    public LocalDate getMaxDate() { return maxDate; }
+
+    /**
+     * True when any posted line is dated within [startDate, endDate].
+     */
+    public boolean overlaps(LocalDate startDate, LocalDate endDate) {
+        return minDate != null && !minDate.isAfter(endDate) && !maxDate.isBefore(startDate);
+    }
+}
@@ -0,0 +1,196 @@
+package com.erp.finance.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point running total for aggregation loops. Amounts are added as a long count of
+ * cents, so summing a report does not allocate a BigDecimal per add or subtract. It falls
+ * back to BigDecimal arithmetic if an amount is finer than cents or the total no longer
+ * fits a long, so results are always exact.
+ *
+ * A Money is mutable and not thread-safe: add/subtract change it and return it for
+ * chaining. Keep it local to the loop and call toBigDecimal() where the value leaves the
+ * service.
+ */
+public final class Money implements Comparable<Money> {
+    public static final int SCALE = 2;
+
+    private static final long[] POW10 = {1, 10, 100};
+    private static final double FAST_PATH_LIMIT = 1e10;
+    // returned by cents(BigDecimal); never held in the cents field, so cents can always be negated
+    private static final long NOT_CENTS = Long.MIN_VALUE;
+
+    private long cents;
+    // set once the total left the long range or an amount had sub-cent precision
+    private BigDecimal exact;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money zero() {
+        return new Money(0);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return zero().add(amount);
+    }
+
+    public static Money ofCents(long cents) {
+        Money money = new Money(0);
+        if (!money.addCents(cents)) {
+            money.exact = BigDecimal.valueOf(cents, SCALE);
+        }
+        return money;
+    }
+
+    /**
+     * Amount in cents, or null when it has finer precision than cents or does not fit a long.
+     */
+    public static Long toMinorUnits(BigDecimal amount) {
+        long units = cents(amount);
+        return units != NOT_CENTS ? units : null;
+    }
+
+    /**
+     * {@code debit - credit} (null counts as zero), computed in cents without an
+     * intermediate Money or BigDecimal; only the result is allocated. Falls back to
+     * BigDecimal when either amount is finer than cents or the difference leaves the long range.
+     */
+    public static BigDecimal net(BigDecimal debit, BigDecimal credit) {
+        long debitCents = debit != null ? cents(debit) : 0;
+        long creditCents = credit != null ? cents(credit) : 0;
+        if (debitCents != NOT_CENTS && creditCents != NOT_CENTS) {
+            long net = debitCents - creditCents;
+            if (((debitCents ^ creditCents) & (debitCents ^ net)) >= 0 && net != NOT_CENTS) {
+                return BigDecimal.valueOf(net, SCALE);
+            }
+        }
+        return zero().add(debit).subtract(credit).toBigDecimal();
+    }
+
+    /**
+     * Add an amount; null counts as zero.
+     */
+    public Money add(BigDecimal amount) {
+        if (amount == null) return this;
+        if (exact == null) {
+            long units = cents(amount);
+            if (units != NOT_CENTS && addCents(units)) return this;
+            exact = BigDecimal.valueOf(cents, SCALE);
+        }
+        exact = exact.add(amount);
+        return this;
+    }
+
+    /**
+     * Subtract an amount; null counts as zero.
+     */
+    public Money subtract(BigDecimal amount) {
+        if (amount == null) return this;
+        if (exact == null) {
+            long units = cents(amount);
+            if (units != NOT_CENTS && addCents(-units)) return this;
+            exact = BigDecimal.valueOf(cents, SCALE);
+        }
+        exact = exact.subtract(amount);
+        return this;
+    }
+
+    public Money add(Money other) {
+        if (exact == null && other.exact == null && addCents(other.cents)) return this;
+        exact = toBigDecimal().add(other.toBigDecimal());
+        return this;
+    }
+
+    public Money subtract(Money other) {
+        if (exact == null && other.exact == null && addCents(-other.cents)) return this;
+        exact = toBigDecimal().subtract(other.toBigDecimal());
+        return this;
+    }
+
+    public int signum() {
+        return exact != null ? exact.signum() : Long.signum(cents);
+    }
+
+    public boolean isZero() {
+        return signum() == 0;
+    }
+
+    /**
+     * A new Money holding the absolute value; this one is unchanged.
+     */
+    public Money abs() {
+        Money copy = copy();
+        if (copy.signum() < 0) {
+            if (copy.exact == null) {
+                copy.cents = -copy.cents;
+            } else {
+                copy.exact = copy.toBigDecimal().negate();
+            }
+        }
+        return copy;
+    }
+
+    public Money copy() {
+        Money copy = new Money(cents);
+        copy.exact = exact;
+        return copy;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return exact != null ? exact : BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        if (exact == null && other.exact == null) return Long.compare(cents, other.cents);
+        return toBigDecimal().compareTo(other.toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        return compareTo((Money) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return toBigDecimal().stripTrailingZeros().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * Amount in cents, or NOT_CENTS. Amounts at scale 0-2 below 10^10 are read through
+     * doubleValue(), which does not allocate for compact values and is exact to well under
+     * a cent in that range; a primitive return avoids boxing on the hot path.
+     */
+    private static long cents(BigDecimal amount) {
+        int scale = amount.scale();
+        if (scale >= 0 && scale <= SCALE) {
+            double value = amount.doubleValue();
+            if (Math.abs(value) < FAST_PATH_LIMIT) {
+                return Math.round(value * POW10[scale]) * POW10[SCALE - scale];
+            }
+        }
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return NOT_CENTS;
+        }
+    }
+
+    // false (and unchanged) on long overflow or when the sum would be NOT_CENTS
+    private boolean addCents(long units) {
+        long sum = cents + units;
+        if (((cents ^ sum) & (units ^ sum)) < 0 || sum == NOT_CENTS) return false;
+        cents = sum;
+        return true;
+    }
+}
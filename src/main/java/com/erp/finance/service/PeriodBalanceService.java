@@ -0,0 +1,174 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.AccountPeriodBalance;
+import com.erp.finance.domain.JournalLine;
+import com.erp.finance.domain.JournalStatus;
+import com.erp.finance.repository.AccountPeriodBalanceRepository;
+import com.erp.finance.repository.JournalRepository;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the account_period_balance snapshot table used by the trial balance.
+ */
+@Service
+public class PeriodBalanceService {
+    private static final String ADD_TO_TOTALS_SQL =
+            "UPDATE account_period_balance SET debit_total = debit_total + ?, credit_total = credit_total + ? " +
+            "WHERE account_id = ? AND period = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO account_period_balance (id, account_id, period, debit_total, credit_total) VALUES (?, ?, ?, ?, ?)";
+
+    // SQLSTATE for a unique constraint violation (PostgreSQL and H2)
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    private final AccountPeriodBalanceRepository balances;
+    private final JournalRepository journals;
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator ids;
+
+    public PeriodBalanceService(AccountPeriodBalanceRepository balances, JournalRepository journals,
+                                JdbcTemplate jdbcTemplate, SequenceIdAllocator ids) {
+        this.balances = balances;
+        this.journals = journals;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = ids;
+    }
+
+    /**
+     * Add posted lines to the totals of their account and journal period. Lines are
+     * summed per (period, account) first, then applied as one batched UPDATE with an
+     * INSERT batch for snapshot rows that do not exist yet.
+     */
+    @Transactional
+    public void recordLines(Collection<JournalLine> lines) {
+        applyTotals(totalsByPeriod(lines));
+    }
+
+    /**
+     * Debit/credit sums of the lines keyed by journal period, then account id.
+     */
+    static Map<String, Map<Long, BigDecimal[]>> totalsByPeriod(Collection<JournalLine> lines) {
+        Map<String, Map<Long, BigDecimal[]>> totals = new TreeMap<>();
+        for (JournalLine line : lines) {
+            BigDecimal[] sums = totals
+                    .computeIfAbsent(line.getJournal().getPeriod(), p -> new TreeMap<>())
+                    .computeIfAbsent(line.getAccountId(), a -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            sums[0] = sums[0].add(line.getDebit());
+            sums[1] = sums[1].add(line.getCredit());
+        }
+        return totals;
+    }
+
+    /**
+     * Add {debit, credit} amounts per period and account to the snapshot rows. Rows that do
+     * not exist yet are inserted under a savepoint; if a concurrent posting inserted one of
+     * them first (duplicate key), the insert is rolled back and those amounts go through the
+     * UPDATE again.
+     */
+    @Transactional
+    public void applyTotals(Map<String, Map<Long, BigDecimal[]>> totals) {
+        List<Object[]> pending = new ArrayList<>();
+        totals.forEach((period, byAccount) -> byAccount.forEach((accountId, sums) ->
+                pending.add(new Object[]{sums[0], sums[1], accountId, period})));
+
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            int[] counts = jdbcTemplate.batchUpdate(ADD_TO_TOTALS_SQL, pending);
+            List<Object[]> missing = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    missing.add(pending.get(i));
+                }
+            }
+            pending.clear();
+            if (missing.isEmpty() || insert(missing)) {
+                return;
+            }
+            if (attempt == MAX_INSERT_ATTEMPTS) {
+                throw new IllegalStateException("Could not create period balance rows after " + attempt + " attempts");
+            }
+            pending.addAll(missing);
+        }
+    }
+
+    /**
+     * Insert snapshot rows for the given update arguments. False, with nothing inserted,
+     * when one of the rows already exists.
+     */
+    private boolean insert(List<Object[]> missing) {
+        long[] newIds = ids.nextIds(AccountPeriodBalance.class, missing.size());
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            Savepoint savepoint = con.setSavepoint();
+            try (PreparedStatement ps = con.prepareStatement(INSERT_SQL)) {
+                for (int i = 0; i < missing.size(); i++) {
+                    Object[] u = missing.get(i);
+                    ps.setLong(1, newIds[i]);
+                    ps.setLong(2, (Long) u[2]);
+                    ps.setString(3, (String) u[3]);
+                    ps.setBigDecimal(4, (BigDecimal) u[0]);
+                    ps.setBigDecimal(5, (BigDecimal) u[1]);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            } catch (SQLException e) {
+                if (!isDuplicateKey(e)) throw e;
+                con.rollback(savepoint);
+                return false;
+            }
+            con.releaseSavepoint(savepoint);
+            return true;
+        });
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            if (UNIQUE_VIOLATION.equals(next.getSQLState())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Recompute snapshots from POSTED journals. A null period rebuilds every period.
+     */
+    @Transactional
+    public Map<String, Object> rebuild(String period) {
+        List<Object[]> rows;
+        if (period == null || period.isBlank()) {
+            balances.deleteAllRows();
+            rows = journals.sumLinesByAccountAndPeriod(JournalStatus.POSTED);
+        } else {
+            balances.deleteByPeriod(period);
+            rows = journals.sumLinesByAccountForPeriod(period, JournalStatus.POSTED);
+        }
+
+        List<AccountPeriodBalance> snapshots = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            snapshots.add(new AccountPeriodBalance((Long) row[0], (String) row[1],
+                    nullToZero((BigDecimal) row[2]), nullToZero((BigDecimal) row[3])));
+        }
+        balances.saveAll(snapshots);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("period", period == null || period.isBlank() ? "ALL" : period);
+        result.put("rows", snapshots.size());
+        return result;
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,331 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.*;
+import com.erp.finance.repository.AccountRepository;
+import com.erp.finance.repository.AccountingPeriodRepository;
+import com.erp.finance.repository.ClosedPeriodBalanceRepository;
+import com.erp.finance.repository.JournalRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Month-end close. Closing a period checks that every journal in it is posted and that its
+ * trial balance balances, posts one closing entry moving revenue and expense activity to
+ * 3100 Retained Earnings, freezes per-account aggregates in closed_period_balances and locks
+ * the period (and every earlier one) against postings. Periods must be closed in order.
+ *
+ * Frozen aggregates never change, so they are cached once read. Income statements made of
+ * whole closed months and balance sheets or trial balances at a closed month end are
+ * answered from them without touching journal lines.
+ */
+@Service
+public class PeriodCloseService {
+    private final AccountingPeriodRepository periods;
+    private final ClosedPeriodBalanceRepository closedBalances;
+    private final JournalRepository journals;
+    private final AccountRepository accountRepository;
+    private final AccountCache accountCache;
+    private final PostingSequencer postingSequencer;
+    private final PeriodLock periodLock;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<String, Frozen> frozen = new ConcurrentHashMap<>();
+
+    public PeriodCloseService(AccountingPeriodRepository periods,
+                              ClosedPeriodBalanceRepository closedBalances,
+                              JournalRepository journals,
+                              AccountRepository accountRepository,
+                              AccountCache accountCache,
+                              PostingSequencer postingSequencer,
+                              PeriodLock periodLock,
+                              TransactionTemplate transactionTemplate) {
+        this.periods = periods;
+        this.closedBalances = closedBalances;
+        this.journals = journals;
+        this.accountRepository = accountRepository;
+        this.accountCache = accountCache;
+        this.postingSequencer = postingSequencer;
+        this.periodLock = periodLock;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public List<AccountingPeriod> getAllPeriods() {
+        return periods.findAllByOrderByPeriodDesc();
+    }
+
+    public Optional<AccountingPeriod> getPeriod(String period) {
+        return periods.findByPeriod(period);
+    }
+
+    public List<ClosedPeriodBalance> getClosedBalances(String period) {
+        return closedBalances.findByPeriod(period);
+    }
+
+    /**
+     * Close a period (YYYY-MM). Throws IllegalArgumentException for a malformed period and
+     * IllegalStateException when the period cannot be closed, with the reason as message.
+     */
+    public AccountingPeriod closePeriod(String period) {
+        YearMonth.parse(period);
+        if (!periodLock.beginClose(period)) {
+            throw new IllegalStateException("Period " + period + " is already closed or a close is in progress");
+        }
+        boolean closed = false;
+        try {
+            AccountingPeriod result = transactionTemplate.execute(status -> close(period));
+            closed = true;
+            return result;
+        } finally {
+            periodLock.endClose(period, closed);
+        }
+    }
+
+    private AccountingPeriod close(String period) {
+        // no sequencer batch may post into the period while it is read and closed
+        postingSequencer.holdPostingsUntilCompletion();
+        // nor any other posting transaction, on this instance or another
+        String lockedAfter = periods.findTopByStatusOrderByPeriodDesc(AccountingPeriod.PeriodStatus.CLOSED)
+                .map(AccountingPeriod::getPeriod).orElse(null);
+        AccountingPeriod periodRow = periodLock.lockForClose(lockedAfter, journals.findEarliestPeriod(), period);
+        if (periodRow.getStatus() == AccountingPeriod.PeriodStatus.CLOSED) {
+            throw new IllegalStateException("Period " + period + " is already closed");
+        }
+        AccountingPeriod previous = periods.findTopByStatusOrderByPeriodDesc(AccountingPeriod.PeriodStatus.CLOSED).orElse(null);
+        List<String> open = journals.findPeriodsBetween(previous != null ? previous.getPeriod() : "", period, JournalStatus.POSTED);
+        if (!open.isEmpty()) {
+            throw new IllegalStateException("Close period " + open.get(0) + " first");
+        }
+        // closing locks the earlier open months too, and their unposted journals with them
+        List<String> pending = journals.findPeriodsWithStatusNotBetween(
+                previous != null ? previous.getPeriod() : "", period, JournalStatus.POSTED);
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException("Journal(s) in " + pending.get(0) + " are not posted; post or delete them before closing " + period);
+        }
+        long unposted = journals.countByPeriodAndStatusNot(period, JournalStatus.POSTED);
+        if (unposted > 0) {
+            throw new IllegalStateException(unposted + " journal(s) in " + period + " are not posted");
+        }
+
+        // Trial balance of the period: [debit, credit] per account
+        Map<Long, BigDecimal[]> activity = new TreeMap<>();
+        BigDecimal totalDebit = BigDecimal.ZERO;
+        BigDecimal totalCredit = BigDecimal.ZERO;
+        for (Object[] row : journals.sumLinesByAccountForPeriod(period, JournalStatus.POSTED)) {
+            BigDecimal debit = nullToZero((BigDecimal) row[2]);
+            BigDecimal credit = nullToZero((BigDecimal) row[3]);
+            activity.put((Long) row[0], new BigDecimal[]{debit, credit});
+            totalDebit = totalDebit.add(debit);
+            totalCredit = totalCredit.add(credit);
+        }
+        if (totalDebit.compareTo(totalCredit) != 0) {
+            throw new IllegalStateException("Trial balance for " + period + " does not balance: debits "
+                    + totalDebit + ", credits " + totalCredit);
+        }
+
+        // Balances through the end of the period before the closing entry
+        Map<Long, BigDecimal> ending = new HashMap<>();
+        if (previous != null) {
+            for (ClosedPeriodBalance balance : closedBalances.findByPeriod(previous.getPeriod())) {
+                ending.put(balance.getAccountId(), balance.getEndingBalance());
+            }
+            activity.forEach((accountId, sums) -> ending.merge(accountId, sums[0].subtract(sums[1]), BigDecimal::add));
+        } else {
+            for (Object[] row : journals.sumLinesByAccountUpToPeriod(period, JournalStatus.POSTED)) {
+                ending.put((Long) row[0], nullToZero((BigDecimal) row[1]).subtract(nullToZero((BigDecimal) row[2])));
+            }
+        }
+
+        JournalEntry closingEntry = createClosingEntry(period, activity);
+        Map<Long, BigDecimal[]> closing = new HashMap<>();
+        BigDecimal netIncome = BigDecimal.ZERO;
+        if (closingEntry != null) {
+            postingSequencer.postInCurrentTransaction(List.of(closingEntry));
+            for (JournalLine line : closingEntry.getLines()) {
+                closing.merge(line.getAccountId(), new BigDecimal[]{line.getDebit(), line.getCredit()},
+                        (a, b) -> new BigDecimal[]{a[0].add(b[0]), a[1].add(b[1])});
+                ending.merge(line.getAccountId(), line.getDebit().subtract(line.getCredit()), BigDecimal::add);
+            }
+            JournalLine retainedEarningsLine = closingEntry.getLines().get(closingEntry.getLines().size() - 1);
+            netIncome = retainedEarningsLine.getCredit().subtract(retainedEarningsLine.getDebit());
+        }
+
+        List<ClosedPeriodBalance> rows = new ArrayList<>(ending.size());
+        for (Map.Entry<Long, BigDecimal> entry : new TreeMap<>(ending).entrySet()) {
+            Long accountId = entry.getKey();
+            BigDecimal[] sums = activity.getOrDefault(accountId, new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            BigDecimal[] closed = closing.getOrDefault(accountId, new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            if (entry.getValue().signum() == 0 && sums[0].signum() == 0 && sums[1].signum() == 0
+                    && closed[0].signum() == 0 && closed[1].signum() == 0) {
+                continue;
+            }
+            ClosedPeriodBalance row = new ClosedPeriodBalance();
+            row.setPeriod(period);
+            row.setAccountId(accountId);
+            row.setDebitTotal(sums[0].add(closed[0]));
+            row.setCreditTotal(sums[1].add(closed[1]));
+            row.setClosingDebit(closed[0]);
+            row.setClosingCredit(closed[1]);
+            row.setEndingBalance(entry.getValue());
+            rows.add(row);
+        }
+        closedBalances.saveAll(rows);
+
+        periodRow.setStatus(AccountingPeriod.PeriodStatus.CLOSED);
+        periodRow.setTotalDebit(totalDebit);
+        periodRow.setTotalCredit(totalCredit);
+        periodRow.setNetIncome(netIncome);
+        periodRow.setClosingJournalId(closingEntry != null ? closingEntry.getId() : null);
+        periodRow.setClosedAt(LocalDateTime.now());
+        return periods.save(periodRow);
+    }
+
+    /**
+     * Entry zeroing the period's revenue and expense activity against 3100 Retained
+     * Earnings (the last line), or null when there is none.
+     */
+    private JournalEntry createClosingEntry(String period, Map<Long, BigDecimal[]> activity) {
+        YearMonth month = YearMonth.parse(period);
+        JournalEntry journal = new JournalEntry();
+        journal.setDate(month.atEndOfMonth());
+        journal.setPeriod(period);
+        journal.setStatus(JournalStatus.POSTED);
+        journal.setClosingEntry(Boolean.TRUE);
+
+        BigDecimal netIncome = BigDecimal.ZERO;
+        for (Map.Entry<Long, BigDecimal[]> entry : activity.entrySet()) {
+            Optional<Account> account = accountCache.findById(entry.getKey());
+            if (account.isEmpty()) continue;
+            AccountType type = account.get().getType();
+            if (type != AccountType.REVENUE && type != AccountType.EXPENSE) continue;
+            BigDecimal net = entry.getValue()[0].subtract(entry.getValue()[1]);
+            if (net.signum() == 0) continue;
+            netIncome = netIncome.subtract(net);
+            journal.getLines().add(line(journal, entry.getKey(),
+                    net.signum() < 0 ? net.negate() : BigDecimal.ZERO,
+                    net.signum() > 0 ? net : BigDecimal.ZERO,
+                    "Period close " + period + ": " + account.get().getName()));
+        }
+        if (journal.getLines().isEmpty()) {
+            return null;
+        }
+        Account retainedEarnings = findOrCreateAccount("3100", "Retained Earnings", AccountType.EQUITY);
+        journal.getLines().add(line(journal, retainedEarnings.getId(),
+                netIncome.signum() < 0 ? netIncome.negate() : BigDecimal.ZERO,
+                netIncome.signum() > 0 ? netIncome : BigDecimal.ZERO,
+                "Period close " + period + ": net income to retained earnings"));
+        return journal;
+    }
+
+    private static JournalLine line(JournalEntry journal, Long accountId, BigDecimal debit, BigDecimal credit, String description) {
+        JournalLine line = new JournalLine();
+        line.setJournal(journal);
+        line.setAccountId(accountId);
+        line.setDebit(debit);
+        line.setCredit(credit);
+        line.setDescription(description);
+        return line;
+    }
+
+    private Account findOrCreateAccount(String code, String name, AccountType type) {
+        Optional<Account> existing = accountCache.findByCode(code);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        Account newAccount = new Account();
+        newAccount.setCode(code);
+        newAccount.setName(name);
+        newAccount.setType(type);
+        newAccount.setBalance(BigDecimal.ZERO);
+        newAccount.setStatus("Active");
+        return accountRepository.save(newAccount);
+    }
+
+    public boolean isClosed(String period) {
+        return frozen(period) != null;
+    }
+
+    /**
+     * Net (debit - credit) activity per account, closing entries excluded, when
+     * [startDate, endDate] is made of whole closed months.
+     */
+    public Optional<Map<Long, BigDecimal>> closedActivity(LocalDate startDate, LocalDate endDate) {
+        if (startDate.getDayOfMonth() != 1 || !endDate.equals(YearMonth.from(endDate).atEndOfMonth())
+                || endDate.isBefore(startDate) || !periodLock.isClosedThrough(YearMonth.from(endDate).toString())) {
+            return Optional.empty();
+        }
+        Map<Long, Money> sums = new HashMap<>();
+        for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+            Frozen period = frozen(month.toString());
+            if (period == null) {
+                return Optional.empty();
+            }
+            period.activity.forEach((accountId, net) -> sums.computeIfAbsent(accountId, id -> Money.zero()).add(net));
+        }
+        Map<Long, BigDecimal> result = new HashMap<>();
+        sums.forEach((accountId, net) -> result.put(accountId, net.toBigDecimal()));
+        return Optional.of(result);
+    }
+
+    /**
+     * Net (debit - credit) balance per account when asOfDate is the last day of a closed month.
+     */
+    public Optional<Map<Long, BigDecimal>> closedBalances(LocalDate asOfDate) {
+        YearMonth month = YearMonth.from(asOfDate);
+        if (!asOfDate.equals(month.atEndOfMonth()) || !periodLock.isClosedThrough(month.toString())) {
+            return Optional.empty();
+        }
+        Frozen period = frozen(month.toString());
+        return period != null ? Optional.of(period.ending) : Optional.empty();
+    }
+
+    private Frozen frozen(String period) {
+        Frozen cached = frozen.get(period);
+        if (cached != null || !periodLock.isClosedThrough(period)) {
+            return cached;
+        }
+        if (periods.findByPeriod(period).filter(p -> p.getStatus() == AccountingPeriod.PeriodStatus.CLOSED).isEmpty()) {
+            return null;
+        }
+        Map<Long, BigDecimal> activity = new HashMap<>();
+        Map<Long, BigDecimal> ending = new HashMap<>();
+        for (ClosedPeriodBalance balance : closedBalances.findByPeriod(period)) {
+            BigDecimal net = balance.getDebitTotal().subtract(balance.getClosingDebit())
+                    .subtract(balance.getCreditTotal().subtract(balance.getClosingCredit()));
+            if (net.signum() != 0) {
+                activity.put(balance.getAccountId(), net);
+            }
+            ending.put(balance.getAccountId(), balance.getEndingBalance());
+        }
+        Frozen loaded = new Frozen(Collections.unmodifiableMap(activity), Collections.unmodifiableMap(ending));
+        frozen.putIfAbsent(period, loaded);
+        return loaded;
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static final class Frozen {
+        final Map<Long, BigDecimal> activity;
+        final Map<Long, BigDecimal> ending;
+
+        Frozen(Map<Long, BigDecimal> activity, Map<Long, BigDecimal> ending) {
+            this.activity = activity;
+            this.ending = ending;
+        }
+    }
+}
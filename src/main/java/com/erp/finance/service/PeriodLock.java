@@ -0,0 +1,176 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.AccountingPeriod;
+import com.erp.finance.repository.AccountingPeriodRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which periods still accept postings. Periods are closed in order, so a period is locked
+ * when it is not after the latest closed period. A period being closed is locked from the
+ * moment its close starts; it is unlocked again if the close fails.
+ *
+ * The in-memory state only turns postings away early. Posting and closing transactions
+ * are serialized by row locks on accounting_periods: a posting holds a shared lock on the
+ * rows of its periods and a close an exclusive lock on the rows of the periods it covers,
+ * so a posting either commits before the close reads the period or finds it closed.
+ */
+@Component
+public class PeriodLock {
+    // a concurrent insert of the same period waits for the other transaction, then does nothing
+    private static final String INSERT_OPEN_SQL =
+            "INSERT INTO accounting_periods (id, period, status, total_debit, total_credit, net_income) " +
+            "VALUES (?, ?, 'OPEN', 0, 0, 0) ON CONFLICT (period) DO NOTHING";
+
+    private final AccountingPeriodRepository periods;
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator ids;
+
+    private volatile String lastClosed;
+    private volatile String closing;
+    // periods known to have a row
+    private final Set<String> rows = ConcurrentHashMap.newKeySet();
+
+    public PeriodLock(AccountingPeriodRepository periods, JdbcTemplate jdbcTemplate, SequenceIdAllocator ids) {
+        this.periods = periods;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = ids;
+    }
+
+    @PostConstruct
+    void load() {
+        lastClosed = periods.findTopByStatusOrderByPeriodDesc(AccountingPeriod.PeriodStatus.CLOSED)
+                .map(AccountingPeriod::getPeriod)
+                .orElse(null);
+        for (AccountingPeriod period : periods.findAll()) {
+            rows.add(period.getPeriod());
+        }
+    }
+
+    /**
+     * True when journals dated in this period (YYYY-MM) can no longer be posted.
+     */
+    public boolean isLocked(String period) {
+        String closed = lastClosed;
+        String inProgress = closing;
+        return period != null
+                && ((closed != null && period.compareTo(closed) <= 0)
+                    || (inProgress != null && period.compareTo(inProgress) <= 0));
+    }
+
+    /**
+     * True when the period has been closed (not merely locked by a later close).
+     */
+    public boolean isClosedThrough(String period) {
+        String closed = lastClosed;
+        return closed != null && period.compareTo(closed) <= 0;
+    }
+
+    public void checkOpen(String period) {
+        if (isLocked(period)) {
+            throw new IllegalStateException("Period " + period + " is closed");
+        }
+    }
+
+    /**
+     * Hold a shared lock on the rows of these periods until the current transaction ends,
+     * then check in the database that none of them has been closed, throwing
+     * IllegalStateException if one has.
+     */
+    public void lockForPosting(Collection<String> postingPeriods) {
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String period : postingPeriods) {
+            if (period != null) sorted.add(period);
+        }
+        if (sorted.isEmpty()) return;
+        ensureRows(sorted);
+        periods.lockForPosting(sorted);
+        String first = sorted.first();
+        if (periods.existsByStatusAndPeriodGreaterThanEqual(AccountingPeriod.PeriodStatus.CLOSED, first)) {
+            throw new IllegalStateException("Period " + first + " is closed");
+        }
+    }
+
+    public String getLastClosed() {
+        return lastClosed;
+    }
+
+    synchronized boolean beginClose(String period) {
+        if (closing != null || (lastClosed != null && period.compareTo(lastClosed) <= 0)) {
+            return false;
+        }
+        closing = period;
+        return true;
+    }
+
+    /**
+     * Hold an exclusive lock on the rows of every period after {@code after} (null: from
+     * {@code earliest}) through {@code period} until the current transaction ends, and
+     * return the row of {@code period}.
+     */
+    AccountingPeriod lockForClose(String after, String earliest, String period) {
+        YearMonth last = YearMonth.parse(period);
+        YearMonth month = after != null ? YearMonth.parse(after).plusMonths(1)
+                : earliest != null && earliest.compareTo(period) < 0 ? YearMonth.parse(earliest) : last;
+        List<String> covered = new ArrayList<>();
+        for (; !month.isAfter(last); month = month.plusMonths(1)) {
+            covered.add(month.toString());
+        }
+        ensureRows(covered);
+        for (AccountingPeriod row : periods.lockForClose(after != null ? after : "", period)) {
+            if (row.getPeriod().equals(period)) {
+                return row;
+            }
+        }
+        throw new IllegalStateException("No row for period " + period);
+    }
+
+    synchronized void endClose(String period, boolean closed) {
+        if (closed) {
+            lastClosed = period;
+        }
+        closing = null;
+    }
+
+    /**
+     * Insert OPEN rows for periods that have none, in the caller's transaction and in
+     * period order, so two transactions creating the same rows cannot deadlock.
+     */
+    private void ensureRows(Collection<String> needed) {
+        List<String> missing = new ArrayList<>();
+        for (String period : new TreeSet<>(needed)) {
+            if (!rows.contains(period)) {
+                missing.add(period);
+            }
+        }
+        if (missing.isEmpty()) return;
+        long[] newIds = ids.nextIds(AccountingPeriod.class, missing.size());
+        List<Object[]> args = new ArrayList<>(missing.size());
+        for (int i = 0; i < missing.size(); i++) {
+            args.add(new Object[]{newIds[i], missing.get(i)});
+        }
+        jdbcTemplate.batchUpdate(INSERT_OPEN_SQL, args);
+        // remembered once they are committed; a rollback takes our inserts with it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rows.addAll(missing);
+                }
+            });
+        } else {
+            rows.addAll(missing);
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.JournalEntry;
+import com.erp.finance.domain.JournalLine;
+import com.erp.finance.domain.JournalStatus;
+import com.erp.finance.repository.JournalRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Posts journals in a single, deterministic order. Post requests are put on a bounded ring
+ * buffer and taken by one writer thread, which drains them in batches and runs each batch
+ * through validate, balance-check, persist and apply-balances in a single transaction: one
+ * query loads every journal of the batch, one JDBC batch marks them POSTED, and one batched
+ * increment per account applies their lines. Requests are completed only after the batch
+ * commits, and every posted journal is stamped with the next postingSequence, so the order
+ * journals were posted in can be replayed for audit.
+ *
+ * Postings that must commit together with other work (batch posts, closing entries,
+ * depreciation runs) use {@link #postInCurrentTransaction}, which takes sequence numbers
+ * under the same posting lock the writer holds for each batch, and keeps it until the
+ * caller's transaction completes. Journals created by invoices and payments are validated
+ * before the originating transaction commits, so a journal that cannot be posted fails
+ * that transaction instead of being left behind; ones that fail later (queue full, write
+ * error) are retried on a schedule.
+ *
+ * Disabled by default ({@code erp.posting.sequencer.enabled}); requests are then run the
+ * same way as a batch of one on the calling thread.
+ */
+@Service
+public class PostingSequencer {
+
+    public enum Outcome { POSTED, NOT_FOUND, REJECTED }
+
+    public static class Result {
+        private final Long journalId;
+        private final Outcome outcome;
+        private final JournalEntry journal;
+        private final String error;
+
+        Result(Long journalId, Outcome outcome, JournalEntry journal, String error) {
+            this.journalId = journalId;
+            this.outcome = outcome;
+            this.journal = journal;
+            this.error = error;
+        }
+
+        public Long getJournalId() { return journalId; }
+        public Outcome getOutcome() { return outcome; }
+        public JournalEntry getJournal() { return journal; }
+        public String getError() { return error; }
+    }
+
+    private static final int RECENT_REJECTIONS = 20;
+
+    private final JournalRepository journals;
+    private final PostingService postingService;
+    private final AccountCache accountCache;
+    private final PeriodLock periodLock;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long timeoutMs;
+
+    private final BlockingQueue<Request> ring;
+    // sequence numbers are only taken and rolled back while this is held (when enabled)
+    private final ReentrantLock postingLock = new ReentrantLock(true);
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final int retryAttempts;
+    // journals posted after commit that are waiting for another attempt: id -> attempts so far
+    private final ConcurrentHashMap<Long, Integer> retries = new ConcurrentHashMap<>();
+    // journals posted after commit that still failed after every attempt
+    private final Set<Long> stranded = ConcurrentHashMap.newKeySet();
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong posted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+    private final Deque<Map<String, Object>> recentRejections = new ArrayDeque<>();
+
+    public PostingSequencer(JournalRepository journals,
+                            PostingService postingService,
+                            AccountCache accountCache,
+                            PeriodLock periodLock,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${erp.posting.sequencer.enabled:false}") boolean enabled,
+                            @Value("${erp.posting.sequencer.capacity:4096}") int capacity,
+                            @Value("${erp.posting.sequencer.batch-size:256}") int batchSize,
+                            @Value("${erp.posting.sequencer.timeout-ms:30000}") long timeoutMs,
+                            @Value("${erp.posting.sequencer.retry-attempts:5}") int retryAttempts) {
+        this.journals = journals;
+        this.postingService = postingService;
+        this.accountCache = accountCache;
+        this.periodLock = periodLock;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.timeoutMs = timeoutMs;
+        this.retryAttempts = Math.max(1, retryAttempts);
+        this.ring = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    }
+
+    @PostConstruct
+    void start() {
+        Long max = journals.findMaxPostingSequence();
+        nextSequence.set(max != null ? max + 1 : 1);
+        if (!enabled) return;
+        running = true;
+        writer = new Thread(this::runWriter, "posting-sequencer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Post a journal that is not yet POSTED. The future completes once the outcome is
+     * durable, or exceptionally with RejectedExecutionException if the ring stays full
+     * for the configured timeout.
+     */
+    public CompletableFuture<Result> post(Long journalId) {
+        Request request = new Request(journalId);
+        submitted.incrementAndGet();
+        if (!enabled) {
+            processBatch(List.of(request));
+            return request.future;
+        }
+        try {
+            if (!ring.offer(request, timeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                recordRejection(journalId, "Posting queue is full");
+                request.future.completeExceptionally(new RejectedExecutionException("Posting queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.future.completeExceptionally(e);
+        }
+        return request.future;
+    }
+
+    /**
+     * Post a journal created inside the current transaction (invoice, payment).
+     * With the sequencer disabled this is {@link PostingService#postJournal}. Otherwise the
+     * journal is checked now, throwing IllegalStateException so the originating transaction
+     * fails if it could never be posted, then saved awaiting posting and handed to the
+     * sequencer once the transaction commits; it becomes POSTED shortly after.
+     */
+    public void postAfterCommit(JournalEntry journal) {
+        if (!enabled) {
+            postingService.postJournal(journal);
+            return;
+        }
+        String error = rejectionReason(journal);
+        if (error != null) {
+            throw new IllegalStateException(error);
+        }
+        journal.setStatus(JournalStatus.APPROVAL);
+        Long journalId = journal.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    postCommitted(journalId, 1);
+                }
+            });
+        } else {
+            journals.save(journal);
+            postCommitted(journalId, 1);
+        }
+    }
+
+    /**
+     * Post journals as part of the caller's transaction, so they commit or roll back with
+     * its other work. Sequence numbers are stamped under the posting lock, which is held
+     * until that transaction completes and given back if it rolls back.
+     */
+    public void postInCurrentTransaction(Collection<JournalEntry> toPost) {
+        holdPostingsUntilCompletion();
+        for (JournalEntry journal : toPost) {
+            journal.setStatus(JournalStatus.POSTED);
+            journal.setPostingSequence(nextSequence.getAndIncrement());
+        }
+        journals.saveAll(toPost);
+        postingService.postJournals(toPost);
+    }
+
+    /**
+     * Wait for the sequencer's batch in flight, if any, and keep it from starting another
+     * until the current transaction completes. Call before reading journal state that
+     * postings might change. No-op when the sequencer is disabled.
+     */
+    public void holdPostingsUntilCompletion() {
+        if (!enabled || postingLock.isHeldByCurrentThread()) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Posting in the caller's transaction requires an active transaction");
+        }
+        postingLock.lock();
+        long firstSequence = nextSequence.get();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    nextSequence.set(firstSequence);
+                }
+                postingLock.unlock();
+            }
+        });
+    }
+
+    private void postCommitted(Long journalId, int attempt) {
+        post(journalId).whenComplete((result, failure) -> {
+            boolean done = failure == null && (result.getOutcome() == Outcome.POSTED
+                    || result.getOutcome() == Outcome.NOT_FOUND
+                    || (result.getJournal() != null && result.getJournal().getStatus() == JournalStatus.POSTED));
+            if (done) return;
+            if (attempt >= retryAttempts) {
+                stranded.add(journalId);
+            } else {
+                retries.put(journalId, attempt);
+            }
+        });
+    }
+
+    /**
+     * Resubmit journals whose post after commit failed, e.g. because the queue was full.
+     */
+    @Scheduled(fixedDelayString = "${erp.posting.sequencer.retry-interval-ms:5000}")
+    public void retryFailedPostings() {
+        for (Long journalId : new ArrayList<>(retries.keySet())) {
+            Integer attempts = retries.remove(journalId);
+            if (attempts != null) {
+                postCommitted(journalId, attempts + 1);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queued", ring.size());
+        stats.put("capacity", ring.size() + ring.remainingCapacity());
+        stats.put("submitted", submitted.get());
+        stats.put("posted", posted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("batches", batches.get());
+        stats.put("largestBatch", largestBatch.get());
+        stats.put("nextSequence", nextSequence.get());
+        stats.put("awaitingRetry", retries.size());
+        // posted after their invoice or payment committed, but still not POSTED: reconcile by hand
+        stats.put("strandedJournalIds", new ArrayList<>(stranded));
+        synchronized (recentRejections) {
+            stats.put("recentRejections", new ArrayList<>(recentRejections));
+        }
+        return stats;
+    }
+
+    private void runWriter() {
+        List<Request> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(ring.take());
+                ring.drainTo(batch, batchSize - 1);
+                postingLock.lock();
+                try {
+                    processBatch(batch);
+                } finally {
+                    postingLock.unlock();
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                for (Request request : batch) {
+                    request.future.completeExceptionally(e);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+        Request left;
+        while ((left = ring.poll()) != null) {
+            left.future.completeExceptionally(new RejectedExecutionException("Posting sequencer stopped"));
+        }
+    }
+
+    /**
+     * Run one batch in a transaction and complete its requests after commit. If the
+     * transaction fails, each request is retried on its own so one bad journal cannot
+     * fail the others.
+     */
+    private void processBatch(List<Request> batch) {
+        long firstSequence = nextSequence.get();
+        List<Result> results;
+        try {
+            results = transactionTemplate.execute(status -> runStages(batch));
+        } catch (RuntimeException e) {
+            if (enabled) {
+                // only the writer thread takes sequence numbers, so the rolled back ones can be reused
+                nextSequence.set(firstSequence);
+            }
+            if (batch.size() == 1) {
+                Request request = batch.get(0);
+                rejected.incrementAndGet();
+                recordRejection(request.journalId, e.getMessage());
+                request.future.completeExceptionally(e);
+                return;
+            }
+            for (Request request : batch) {
+                processBatch(List.of(request));
+            }
+            return;
+        }
+        batches.incrementAndGet();
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+        for (int i = 0; i < batch.size(); i++) {
+            Result result = results.get(i);
+            if (result.outcome == Outcome.POSTED) {
+                posted.incrementAndGet();
+            } else {
+                rejected.incrementAndGet();
+                recordRejection(result.journalId, result.error);
+            }
+            batch.get(i).future.complete(result);
+        }
+    }
+
+    private List<Result> runStages(List<Request> batch) {
+        // validate: load the whole batch in one query
+        List<Long> ids = batch.stream().map(r -> r.journalId).distinct().collect(Collectors.toList());
+        Map<Long, JournalEntry> byId = journals.findWithLinesByIdIn(ids).stream()
+                .collect(Collectors.toMap(JournalEntry::getId, Function.identity()));
+
+        List<Result> results = new ArrayList<>(batch.size());
+        List<JournalEntry> accepted = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Request request : batch) {
+            JournalEntry journal = byId.get(request.journalId);
+            String error = null;
+            if (journal == null) {
+                results.add(new Result(request.journalId, Outcome.NOT_FOUND, null, "Journal not found"));
+                continue;
+            }
+            if (journal.getStatus() == JournalStatus.POSTED || !seen.add(journal.getId())) {
+                error = "Journal already posted";
+            } else {
+                error = rejectionReason(journal);
+            }
+            if (error != null) {
+                results.add(new Result(request.journalId, Outcome.REJECTED, journal, error));
+                continue;
+            }
+            accepted.add(journal);
+            results.add(new Result(request.journalId, Outcome.POSTED, journal, null));
+        }
+        if (accepted.isEmpty()) return results;
+
+        // persist: status and sequence go out as one JDBC batch at flush
+        for (JournalEntry journal : accepted) {
+            journal.setStatus(JournalStatus.POSTED);
+            journal.setPostingSequence(nextSequence.getAndIncrement());
+        }
+        journals.saveAll(accepted);
+
+        // apply-balances: one batched increment per account for the whole batch
+        postingService.postJournals(accepted);
+        return results;
+    }
+
+    /**
+     * Why the journal cannot be posted, or null when it can.
+     */
+    private String rejectionReason(JournalEntry journal) {
+        if (periodLock.isLocked(journal.getPeriod())) {
+            return "Period " + journal.getPeriod() + " is closed";
+        } else if (journal.getLines().isEmpty()) {
+            return "Journal has no lines";
+        } else if (!accountsExist(journal)) {
+            return "Journal references an unknown account";
+        } else if (!isBalanced(journal)) {
+            // balance-check
+            return "Debits and credits do not balance";
+        }
+        return null;
+    }
+
+    private boolean accountsExist(JournalEntry journal) {
+        for (JournalLine line : journal.getLines()) {
+            if (line.getAccountId() == null || accountCache.findById(line.getAccountId()).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBalanced(JournalEntry journal) {
+        BigDecimal totalDebit = BigDecimal.ZERO;
+        BigDecimal totalCredit = BigDecimal.ZERO;
+        for (JournalLine line : journal.getLines()) {
+            totalDebit = totalDebit.add(line.getDebit());
+            totalCredit = totalCredit.add(line.getCredit());
+        }
+        return totalDebit.compareTo(totalCredit) == 0;
+    }
+
+    private void recordRejection(Long journalId, String error) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("journalId", journalId);
+        entry.put("error", error != null ? error : "Unknown error");
+        synchronized (recentRejections) {
+            recentRejections.addFirst(entry);
+            if (recentRejections.size() > RECENT_REJECTIONS) {
+                recentRejections.removeLast();
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+        }
+    }
+
+    private static class Request {
+        final Long journalId;
+        final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        Request(Long journalId) {
+            this.journalId = journalId;
+        }
+    }
+}
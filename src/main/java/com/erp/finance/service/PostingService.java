@@ -1,33 +1,193 @@
 package com.erp.finance.service;
 
 import com.erp.finance.domain.*;
-import com.erp.finance.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @Service
 public class PostingService {
-    private final AccountRepository accounts;
+    private static final String ADD_TO_BALANCE_SQL = "UPDATE accounts SET balance = balance + ? WHERE id = ?";
 
-    public PostingService(AccountRepository accounts) {
-        this.accounts = accounts;
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountCache accountCache;
+    private final PeriodBalanceService periodBalances;
+    private final ApplicationEventPublisher events;
+    private final BalanceAccumulator accumulator;
+    private final PeriodLock periodLock;
+    // "direct" (default): increment rows inside the posting transaction; "accumulate": see BalanceAccumulator
+    private final boolean accumulate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PostingService(JdbcTemplate jdbcTemplate, AccountCache accountCache, PeriodBalanceService periodBalances,
+                          ApplicationEventPublisher events, BalanceAccumulator accumulator, PeriodLock periodLock,
+                          @Value("${erp.posting.balance-mode:direct}") String balanceMode) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountCache = accountCache;
+        this.periodBalances = periodBalances;
+        this.events = events;
+        this.accumulator = accumulator;
+        this.periodLock = periodLock;
+        this.accumulate = "accumulate".equalsIgnoreCase(balanceMode);
     }
 
-    public void applyLineToAccount(JournalLine line) {
-        Optional<Account> opt = accounts.findById(line.getAccountId());
-        if (opt.isEmpty()) return;
-        Account acct = opt.get();
-        AccountType type = acct.getType();
-        BigDecimal balance = acct.getBalance();
-        BigDecimal newBalance;
-        if (type == AccountType.ASSET || type == AccountType.EXPENSE) {
-            newBalance = balance.add(line.getDebit()).subtract(line.getCredit());
+    @Transactional
+    public void postJournal(JournalEntry journal) {
+        postJournals(List.of(journal));
+    }
+
+    /**
+     * Apply the lines of the given journals to account balances and period snapshots.
+     * Lines are grouped by account so each account receives exactly one atomic
+     * "balance = balance + delta" update, sent to the database as a single JDBC batch.
+     * In "accumulate" mode the deltas are instead added to {@link BalanceAccumulator}
+     * after commit and written by its background flusher.
+     * A {@link JournalPostedEvent} is published for the applied lines. Journals in a
+     * closed period are refused with IllegalStateException, except closing entries; the
+     * periods stay locked against closing until the transaction ends.
+     */
+    @Transactional
+    public void postJournals(Collection<JournalEntry> journals) {
+        Set<String> postingPeriods = new TreeSet<>();
+        for (JournalEntry journal : journals) {
+            if (!Boolean.TRUE.equals(journal.getClosingEntry())) {
+                periodLock.checkOpen(journal.getPeriod());
+                postingPeriods.add(journal.getPeriod());
+            }
+        }
+        periodLock.lockForPosting(postingPeriods);
+        // Sorted by account id so concurrent postings lock account rows in the same order
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        List<JournalLine> applied = new ArrayList<>();
+        for (JournalEntry journal : journals) {
+            for (JournalLine line : journal.getLines()) {
+                Optional<Account> opt = accountCache.findById(line.getAccountId());
+                if (opt.isEmpty()) continue;
+                deltas.merge(line.getAccountId(), balanceEffect(opt.get().getType(), line), BigDecimal::add);
+                applied.add(line);
+            }
+        }
+        if (deltas.isEmpty()) return;
+
+        if (accumulate && accumulateAfterCommit(deltas, applied)) {
+            events.publishEvent(new JournalPostedEvent(applied));
+            return;
+        }
+
+        // Make sure rows created earlier in this transaction are visible to the JDBC statements
+        entityManager.flush();
+
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((accountId, delta) -> {
+            if (delta.signum() != 0) {
+                args.add(new Object[]{delta, accountId});
+            }
+        });
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_TO_BALANCE_SQL, args);
+        }
+        periodBalances.recordLines(applied);
+        events.publishEvent(new JournalPostedEvent(applied));
+    }
+
+    /**
+     * Take the lines of a POSTED journal back out of account balances and period snapshots,
+     * e.g. before the journal is deleted. Always applied inside the calling transaction, in
+     * "accumulate" mode too, so the removal commits or rolls back with the delete.
+     */
+    @Transactional
+    public void unpostJournal(JournalEntry journal) {
+        periodLock.checkOpen(journal.getPeriod());
+        periodLock.lockForPosting(List.of(journal.getPeriod()));
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        List<JournalLine> removed = new ArrayList<>();
+        for (JournalLine line : journal.getLines()) {
+            Optional<Account> opt = accountCache.findById(line.getAccountId());
+            if (opt.isEmpty()) continue;
+            deltas.merge(line.getAccountId(), balanceEffect(opt.get().getType(), line).negate(), BigDecimal::add);
+            removed.add(line);
+        }
+        if (deltas.isEmpty()) return;
+
+        entityManager.flush();
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((accountId, delta) -> {
+            if (delta.signum() != 0) {
+                args.add(new Object[]{delta, accountId});
+            }
+        });
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_TO_BALANCE_SQL, args);
+        }
+        Map<String, Map<Long, BigDecimal[]>> totals = PeriodBalanceService.totalsByPeriod(removed);
+        totals.values().forEach(byAccount -> byAccount.values().forEach(sums -> {
+            sums[0] = sums[0].negate();
+            sums[1] = sums[1].negate();
+        }));
+        periodBalances.applyTotals(totals);
+    }
+
+    /**
+     * Hand the deltas to the accumulator once the transaction commits. Returns false, so the
+     * caller applies them directly, if any amount is not a whole number of cents.
+     */
+    private boolean accumulateAfterCommit(Map<Long, BigDecimal> deltas, List<JournalLine> applied) {
+        Map<Long, Long> balanceCents = new HashMap<>();
+        for (Map.Entry<Long, BigDecimal> delta : deltas.entrySet()) {
+            Long cents = Money.toMinorUnits(delta.getValue());
+            if (cents == null) return false;
+            balanceCents.put(delta.getKey(), cents);
+        }
+        Map<String, Map<Long, long[]>> totalCents = new HashMap<>();
+        for (Map.Entry<String, Map<Long, BigDecimal[]>> period : PeriodBalanceService.totalsByPeriod(applied).entrySet()) {
+            for (Map.Entry<Long, BigDecimal[]> account : period.getValue().entrySet()) {
+                Long debit = Money.toMinorUnits(account.getValue()[0]);
+                Long credit = Money.toMinorUnits(account.getValue()[1]);
+                if (debit == null || credit == null) return false;
+                totalCents.computeIfAbsent(period.getKey(), p -> new HashMap<>())
+                        .put(account.getKey(), new long[]{debit, credit});
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accumulator.add(balanceCents, totalCents);
+                }
+            });
         } else {
-            newBalance = balance.subtract(line.getDebit()).add(line.getCredit());
+            accumulator.add(balanceCents, totalCents);
+        }
+        return true;
+    }
+
+    /**
+     * Signed change a line makes to its account balance.
+     */
+    public static BigDecimal balanceEffect(AccountType type, JournalLine line) {
+        if (type == AccountType.ASSET || type == AccountType.EXPENSE) {
+            return line.getDebit().subtract(line.getCredit());
         }
-        acct.setBalance(newBalance);
-        accounts.save(acct);
+        return line.getCredit().subtract(line.getDebit());
     }
 }
@@ -0,0 +1,187 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.ReconItem;
+import com.erp.finance.domain.ReconStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams bank statements into recon_items. Rows are parsed one at a time and written in
+ * fixed-size JDBC batches, each batch committed on its own, so neither the file nor the
+ * imported items are ever held in memory as a whole. Ids come from recon_items_seq, the
+ * same sequence the ReconItem entity uses.
+ */
+@Service
+public class ReconImportService {
+    private static final String INSERT_SQL =
+            "INSERT INTO recon_items (id, date, amount, reference, status, variance) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_TRACKED_IMPORTS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SequenceIdAllocator ids;
+    private final int batchSize;
+
+    // most recent imports, oldest evicted first
+    private final Map<String, ImportProgress> imports = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ImportProgress> eldest) {
+            return size() > MAX_TRACKED_IMPORTS;
+        }
+    };
+
+    public ReconImportService(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              SequenceIdAllocator ids,
+                              @Value("${erp.recon-import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ids = ids;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Import a statement read from {@code in}. Rows that fail to parse are skipped and
+     * reported; a malformed document aborts the import after the batches already written.
+     */
+    public ImportProgress importStatement(String format, InputStream in) {
+        BankStatementReader.Format parsedFormat = parseFormat(format);
+        ImportProgress progress = new ImportProgress(UUID.randomUUID().toString(), parsedFormat.name());
+        synchronized (imports) {
+            imports.put(progress.getId(), progress);
+        }
+
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        try (BankStatementReader reader = BankStatementReader.open(parsedFormat, in)) {
+            BankStatementReader.Row row;
+            while ((row = reader.next()) != null) {
+                progress.rowsRead.incrementAndGet();
+                if (!row.isValid()) {
+                    progress.addError(row.rowNumber, row.error);
+                    continue;
+                }
+                batch.add(new Object[]{Date.valueOf(row.date), row.amount, row.reference,
+                        ReconStatus.UNMATCHED.name(), BigDecimal.ZERO});
+                if (batch.size() == batchSize) {
+                    flush(batch, progress);
+                }
+            }
+            flush(batch, progress);
+            progress.finish("COMPLETED", null);
+        } catch (IOException | RuntimeException e) {
+            progress.finish("FAILED", e.getMessage());
+        }
+        return progress;
+    }
+
+    public List<ImportProgress> recentImports() {
+        synchronized (imports) {
+            List<ImportProgress> recent = new ArrayList<>(imports.values());
+            Collections.reverse(recent);
+            return recent;
+        }
+    }
+
+    public Optional<ImportProgress> findImport(String id) {
+        synchronized (imports) {
+            return Optional.ofNullable(imports.get(id));
+        }
+    }
+
+    private void flush(List<Object[]> batch, ImportProgress progress) {
+        if (batch.isEmpty()) return;
+        transactionTemplate.executeWithoutResult(status -> {
+            long[] newIds = ids.nextIds(ReconItem.class, batch.size());
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Object[] values = batch.get(i);
+                Object[] row = new Object[values.length + 1];
+                row[0] = newIds[i];
+                System.arraycopy(values, 0, row, 1, values.length);
+                rows.add(row);
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        });
+        progress.rowsImported.addAndGet(batch.size());
+        batch.clear();
+    }
+
+    private static BankStatementReader.Format parseFormat(String format) {
+        String normalized = format == null ? "" : format.trim().toUpperCase().replace(".", "").replace("_", "");
+        try {
+            return BankStatementReader.Format.valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unsupported statement format: " + format + " (expected csv, ofx or camt053)");
+        }
+    }
+
+    public static class ImportProgress {
+        private final String id;
+        private final String format;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final List<RowError> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile String status = "RUNNING";
+        private volatile String failure;
+        private volatile LocalDateTime finishedAt;
+
+        ImportProgress(String id, String format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void addError(long row, String message) {
+            if (errorCount.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+
+        void finish(String status, String failure) {
+            this.failure = failure;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        public String getId() { return id; }
+        public String getFormat() { return format; }
+        public String getStatus() { return status; }
+        public String getFailure() { return failure; }
+        public LocalDateTime getStartedAt() { return startedAt; }
+        public LocalDateTime getFinishedAt() { return finishedAt; }
+        public long getRowsRead() { return rowsRead.get(); }
+        public long getRowsImported() { return rowsImported.get(); }
+        public long getErrorCount() { return errorCount.get(); }
+        public List<RowError> getErrors() {
+            synchronized (errors) {
+                return new ArrayList<>(errors);
+            }
+        }
+    }
+
+    public static class RowError {
+        private final long row;
+        private final String error;
+        public RowError(long row, String error) { this.row = row; this.error = error; }
+        public long getRow() { return row; }
+        public String getError() { return error; }
+    }
+}
@@ -0,0 +1,183 @@
+package com.erp.finance.service;
+
+import com.erp.finance.repository.ReconLineView;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hash index over journal lines for bank reconciliation.
+ *
+ * Lines are keyed by absolute amount in minor units and, when a date window is given,
+ * by a date bucket one window wide. A bank item then only probes its own bucket and the
+ * two neighbouring ones, so a matching run costs roughly O(items + lines) instead of
+ * comparing every item with every line. Keys live in primitive arrays (open addressing,
+ * linear probing) with per-key chains, so building the index allocates no boxed keys.
+ * Amounts finer than a cent are never rounded into a key: those lines are kept aside and
+ * compared exactly with items that are finer than a cent too.
+ */
+class ReconMatchingEngine {
+    private static final int EMPTY = -1;
+
+    // Line columns
+    private final long[] lineIds;
+    private final long[] journalIds;
+    private final long[] lineDays;
+    private final int[] nextInChain;
+    // lines whose amount is finer than a cent, with that exact absolute amount
+    private final int[] subCentLines;
+    private final BigDecimal[] subCentAmounts;
+    private final int subCentCount;
+
+    // Open-addressing table: (amount, bucket) -> head of chain
+    private final long[] slotAmounts;
+    private final long[] slotBuckets;
+    private final int[] slotHeads;
+    private final int mask;
+
+    private final int dateWindowDays; // < 0 means no date restriction
+    private final long bucketWidth;
+
+    ReconMatchingEngine(List<ReconLineView> lines, Integer dateWindowDays) {
+        this.dateWindowDays = dateWindowDays != null && dateWindowDays >= 0 ? dateWindowDays : -1;
+        this.bucketWidth = this.dateWindowDays >= 0 ? this.dateWindowDays + 1L : 0L;
+
+        int n = lines.size();
+        lineIds = new long[n];
+        journalIds = new long[n];
+        lineDays = new long[n];
+        nextInChain = new int[n];
+
+        int capacity = Integer.highestOneBit(Math.max(4, n * 2 - 1)) << 1;
+        slotAmounts = new long[capacity];
+        slotBuckets = new long[capacity];
+        slotHeads = new int[capacity];
+        Arrays.fill(slotHeads, EMPTY);
+        mask = capacity - 1;
+
+        int[] subCent = new int[n];
+        BigDecimal[] subCentExact = new BigDecimal[n];
+        int subCents = 0;
+        for (int i = 0; i < n; i++) {
+            ReconLineView line = lines.get(i);
+            lineIds[i] = line.getLineId();
+            journalIds[i] = line.getJournalId();
+            lineDays[i] = line.getDate().toEpochDay();
+            BigDecimal lineAmount = lineAmount(line).abs();
+            Long amount = toMinorUnits(lineAmount);
+            if (amount == null) {
+                subCent[subCents] = i;
+                subCentExact[subCents++] = lineAmount;
+                continue;
+            }
+            int slot = findSlot(amount, bucketOf(lineDays[i]), true);
+            nextInChain[i] = slotHeads[slot];
+            slotHeads[slot] = i;
+        }
+        subCentLines = subCent;
+        subCentAmounts = subCentExact;
+        subCentCount = subCents;
+    }
+
+    /**
+     * Best {@code limit} candidate lines for one bank item, highest score first.
+     * The score is 100 minus the distance in days, floored at zero.
+     */
+    List<ReconService.MatchSuggestion> match(Long reconItemId, BigDecimal itemAmount, LocalDate itemDate, int limit) {
+        if (limit <= 0) return List.of();
+        BigDecimal exactAmount = itemAmount.abs();
+        Long amount = toMinorUnits(exactAmount);
+        long day = itemDate.toEpochDay();
+
+        int[] best = new int[limit];
+        int[] bestScores = new int[limit];
+        int found = 0;
+
+        if (amount == null) {
+            // finer than a cent: only a line with exactly this amount matches
+            for (int k = 0; k < subCentCount; k++) {
+                if (subCentAmounts[k].compareTo(exactAmount) == 0) {
+                    found = offer(subCentLines[k], day, best, bestScores, found, limit);
+                }
+            }
+        } else {
+            long bucket = bucketOf(day);
+            long fromBucket = bucketWidth > 0 ? bucket - 1 : bucket;
+            long toBucket = bucketWidth > 0 ? bucket + 1 : bucket;
+            for (long b = fromBucket; b <= toBucket; b++) {
+                int slot = findSlot(amount, b, false);
+                if (slot == EMPTY) continue;
+                for (int i = slotHeads[slot]; i != EMPTY; i = nextInChain[i]) {
+                    found = offer(i, day, best, bestScores, found, limit);
+                }
+            }
+        }
+
+        ReconService.MatchSuggestion[] result = new ReconService.MatchSuggestion[found];
+        for (int k = 0; k < found; k++) {
+            int i = best[k];
+            result[k] = new ReconService.MatchSuggestion(reconItemId, journalIds[i], lineIds[i], bestScores[k]);
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Put line i into the top-N buffer if it is within the date window and scores high
+     * enough; returns the new number of entries.
+     */
+    private int offer(int i, long day, int[] best, int[] bestScores, int found, int limit) {
+        long days = Math.abs(lineDays[i] - day);
+        if (dateWindowDays >= 0 && days > dateWindowDays) return found;
+        int score = (int) Math.max(0, 100 - days);
+        // Insertion into the small top-N buffer; ties keep the lower line id first
+        int pos = found;
+        while (pos > 0 && (bestScores[pos - 1] < score
+                || (bestScores[pos - 1] == score && lineIds[best[pos - 1]] > lineIds[i]))) {
+            pos--;
+        }
+        if (pos >= limit) return found;
+        int last = Math.min(found, limit - 1);
+        System.arraycopy(best, pos, best, pos + 1, last - pos);
+        System.arraycopy(bestScores, pos, bestScores, pos + 1, last - pos);
+        best[pos] = i;
+        bestScores[pos] = score;
+        return found < limit ? found + 1 : found;
+    }
+
+    private long bucketOf(long epochDay) {
+        return bucketWidth > 0 ? Math.floorDiv(epochDay, bucketWidth) : 0L;
+    }
+
+    private int findSlot(long amount, long bucket, boolean insert) {
+        int slot = (int) mix(amount * 31 + bucket) & mask;
+        while (slotHeads[slot] != EMPTY) {
+            if (slotAmounts[slot] == amount && slotBuckets[slot] == bucket) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!insert) return EMPTY;
+        slotAmounts[slot] = amount;
+        slotBuckets[slot] = bucket;
+        return slot;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static BigDecimal lineAmount(ReconLineView line) {
+        return line.getDebit().signum() != 0 ? line.getDebit() : line.getCredit();
+    }
+
+    /**
+     * Absolute amount in cents, so bank debits (negative) match GL credits; null when it is
+     * finer than a cent, which is then compared exactly instead of being rounded.
+     */
+    static Long toMinorUnits(BigDecimal amount) {
+        return Money.toMinorUnits(amount.abs());
+    }
+}
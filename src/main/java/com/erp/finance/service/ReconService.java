@@ -1,44 +1,42 @@
 package com.erp.finance.service;
 
-import com.erp.finance.domain.JournalEntry;
-import com.erp.finance.domain.JournalLine;
 import com.erp.finance.domain.JournalStatus;
 import com.erp.finance.domain.ReconItem;
-import com.erp.finance.repository.JournalRepository;
+import com.erp.finance.repository.JournalLineRepository;
 import com.erp.finance.repository.ReconItemRepository;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class ReconService {
+    public static final int DEFAULT_MATCH_LIMIT = 5;
+
     private final ReconItemRepository reconItems;
-    private final JournalRepository journals;
+    private final JournalLineRepository journalLines;
 
-    public ReconService(ReconItemRepository reconItems, JournalRepository journals) {
+    public ReconService(ReconItemRepository reconItems, JournalLineRepository journalLines) {
         this.reconItems = reconItems;
-        this.journals = journals;
+        this.journalLines = journalLines;
     }
 
     public List<MatchSuggestion> suggestMatches(String period) {
+        return suggestMatches(period, null, DEFAULT_MATCH_LIMIT);
+    }
+
+    /**
+     * Suggest GL lines for every unmatched bank item. Lines are matched on absolute amount;
+     * when dateWindowDays is set, only lines within that many days of the item qualify.
+     * At most {@code limit} suggestions are returned per item, best score first.
+     */
+    public List<MatchSuggestion> suggestMatches(String period, Integer dateWindowDays, int limit) {
         List<ReconItem> candidates = reconItems.findByStatus(com.erp.finance.domain.ReconStatus.UNMATCHED);
-        List<JournalEntry> posted = journals.findByPeriodAndStatus(period, JournalStatus.POSTED);
+        ReconMatchingEngine engine = new ReconMatchingEngine(
+                journalLines.findReconLines(period, JournalStatus.POSTED), dateWindowDays);
         List<MatchSuggestion> suggestions = new ArrayList<>();
         for (ReconItem item : candidates) {
-            for (JournalEntry je : posted) {
-                for (JournalLine line : je.getLines()) {
-                    BigDecimal lineAmount = line.getDebit().compareTo(BigDecimal.ZERO) != 0 ? line.getDebit() : line.getCredit();
-                    if (lineAmount.compareTo(item.getAmount()) == 0) {
-                        long days = Math.abs(ChronoUnit.DAYS.between(item.getDate(), je.getDate()));
-                        // Simple score: closer date gets higher score
-                        int score = (int) Math.max(0, 100 - days);
-                        suggestions.add(new MatchSuggestion(item.getId(), je.getId(), line.getId(), score));
-                    }
-                }
-            }
+            suggestions.addAll(engine.match(item.getId(), item.getAmount(), item.getDate(), limit));
         }
         return suggestions;
     }
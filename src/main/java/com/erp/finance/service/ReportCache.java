@@ -0,0 +1,211 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.JournalLine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of report results keyed by (report type, parameters, ledger watermark). Every
+ * committed posting stamps the months it touched with the next ledger version; the
+ * watermark of a date range is the highest stamp among its months. A posting therefore
+ * only moves the watermark of ranges that cover its dates, and results for other ranges,
+ * closed months included, keep being served. Entries under an old watermark are never hit
+ * again and age out of the LRU.
+ *
+ * Results are shared between callers and must not be modified. Deleting a posted journal
+ * (ledgerChanged) or changing the chart of accounts (accountsChanged) also invalidates.
+ */
+@Service
+public class ReportCache {
+    private final int maxEntries;
+    private final boolean enabled;
+
+    // guarded by "this"
+    private final LinkedHashMap<Key, Map<String, Object>> entries;
+
+    private final AtomicLong ledgerVersion = new AtomicLong();
+    private final ConcurrentSkipListMap<YearMonth, Long> monthVersions = new ConcurrentSkipListMap<>();
+    private volatile long accountsVersion;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ReportCache(@Value("${erp.report-cache.enabled:true}") boolean enabled,
+                       @Value("${erp.report-cache.max-entries:500}") int maxEntries) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Map<String, Object>> eldest) {
+                if (size() > ReportCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached result for a report over [startDate, endDate], computing it on a miss. A null
+     * startDate means the report reads everything up to endDate (balances as of a date).
+     */
+    public Map<String, Object> get(String reportType, LocalDate startDate, LocalDate endDate,
+                                   List<Object> parameters, Supplier<Map<String, Object>> compute) {
+        if (!enabled) {
+            return compute.get();
+        }
+        Key key = new Key(reportType, startDate, endDate, parameters, watermark(startDate, endDate), accountsVersion);
+        synchronized (this) {
+            Map<String, Object> cached = entries.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        // The key was taken before computing: a posting that commits meanwhile moves the
+        // watermark, so a result missing it is stored under a key no later request uses
+        Map<String, Object> result = compute.get();
+        synchronized (this) {
+            entries.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Highest ledger version stamped on a month within [startDate, endDate].
+     */
+    public long watermark(LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && startDate.isAfter(endDate)) {
+            return 0;
+        }
+        Map<YearMonth, Long> covered = startDate == null
+                ? monthVersions.headMap(YearMonth.from(endDate), true)
+                : monthVersions.subMap(YearMonth.from(startDate), true, YearMonth.from(endDate), true);
+        long watermark = 0;
+        for (Long version : covered.values()) {
+            watermark = Math.max(watermark, version);
+        }
+        return watermark;
+    }
+
+    @EventListener
+    public void onJournalPosted(JournalPostedEvent event) {
+        Set<YearMonth> months = new TreeSet<>();
+        for (JournalLine line : event.getLines()) {
+            months.add(YearMonth.from(line.getJournal().getDate()));
+        }
+        if (!months.isEmpty()) {
+            afterCommit(() -> stamp(months));
+        }
+    }
+
+    /**
+     * Move the watermark of every range covering this date, e.g. after a posted journal
+     * was deleted; deferred to after commit when called inside a transaction.
+     */
+    public void ledgerChanged(LocalDate date) {
+        Set<YearMonth> months = Set.of(YearMonth.from(date));
+        afterCommit(() -> stamp(months));
+    }
+
+    /**
+     * Account codes, names or types changed: no cached report can be reused.
+     */
+    public void accountsChanged() {
+        afterCommit(() -> {
+            synchronized (this) {
+                accountsVersion++;
+            }
+        });
+    }
+
+    private void stamp(Set<YearMonth> months) {
+        long version = ledgerVersion.incrementAndGet();
+        for (YearMonth month : months) {
+            monthVersions.merge(month, version, Math::max);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("size", entries.size());
+        }
+        stats.put("enabled", enabled);
+        stats.put("maxEntries", maxEntries);
+        stats.put("ledgerVersion", ledgerVersion.get());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        return stats;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class Key {
+        final String reportType;
+        final LocalDate startDate;
+        final LocalDate endDate;
+        final List<Object> parameters;
+        final long watermark;
+        final long accountsVersion;
+
+        Key(String reportType, LocalDate startDate, LocalDate endDate, List<Object> parameters,
+            long watermark, long accountsVersion) {
+            this.reportType = reportType;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.parameters = parameters;
+            this.watermark = watermark;
+            this.accountsVersion = accountsVersion;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return watermark == other.watermark && accountsVersion == other.accountsVersion
+                    && reportType.equals(other.reportType) && Objects.equals(startDate, other.startDate)
+                    && endDate.equals(other.endDate) && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(reportType, startDate, endDate, parameters, watermark, accountsVersion);
+        }
+    }
+}
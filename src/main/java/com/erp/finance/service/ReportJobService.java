@@ -0,0 +1,308 @@
+package com.erp.finance.service;
+
+import com.erp.finance.domain.ReportJob;
+import com.erp.finance.domain.ReportJob.JobStatus;
+import com.erp.finance.repository.ReportJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs heavy reports in the background so clients poll for them instead of holding a
+ * request thread. Jobs run on a fixed pool with a bounded queue (erp.report-jobs.workers,
+ * erp.report-jobs.queue-capacity); a submission that does not fit is rejected. Results are
+ * stored as JSON on the job row and purged with the job after erp.report-jobs.retention-hours.
+ *
+ * Reports are computed through ReportCache, so a job and the synchronous endpoint share
+ * results, and each takes an analytics permit from Bulkheads while it computes. Progress is coarse: 0 queued, 10 running, 90 computed and being stored, 100 done.
+ * Cancelling a running job interrupts its thread and discards whatever it produces. Each
+ * job records who submitted it; only that user, an accountant or an administrator can
+ * cancel it.
+ */
+@Service
+public class ReportJobService {
+    public static final Set<String> REPORT_TYPES =
+            Set.of("income-statement", "balance-sheet", "trial-balance", "cash-flow", "account-ledger");
+
+    private static final Set<JobStatus> UNFINISHED = EnumSet.of(JobStatus.QUEUED, JobStatus.RUNNING);
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final Set<String> CANCEL_ANY = Set.of("ROLE_ACCOUNTANT", "ROLE_SYSTEM_ADMIN");
+
+    private final ReportJobRepository jobs;
+    private final FinancialReportService reportService;
+    private final ReportCache reportCache;
+    private final Bulkheads bulkheads;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int retentionHours;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<Long, Future<?>> running = new ConcurrentHashMap<>();
+
+    public ReportJobService(ReportJobRepository jobs,
+                            FinancialReportService reportService,
+                            ReportCache reportCache,
+                            Bulkheads bulkheads,
+                            TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper,
+                            @Value("${erp.report-jobs.workers:2}") int workers,
+                            @Value("${erp.report-jobs.queue-capacity:50}") int queueCapacity,
+                            @Value("${erp.report-jobs.retention-hours:24}") int retentionHours) {
+        this.jobs = jobs;
+        this.reportService = reportService;
+        this.reportCache = reportCache;
+        this.bulkheads = bulkheads;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.retentionHours = retentionHours;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread thread = new Thread(r, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Jobs queued or running when the application stopped will never finish.
+     */
+    @PostConstruct
+    void failInterrupted() {
+        transactionTemplate.executeWithoutResult(status ->
+                jobs.finishAll(UNFINISHED, JobStatus.FAILED, "Interrupted by restart", LocalDateTime.now()));
+    }
+
+    /**
+     * Queue a report. Throws IllegalArgumentException for an unknown report or bad
+     * parameters, RejectedExecutionException when the queue is full.
+     */
+    public ReportJob submit(String reportType, Map<String, String> parameters, String submittedBy) {
+        Map<String, String> params = parameters != null ? parameters : Map.of();
+        Supplier<Map<String, Object>> report = report(reportType, params);
+
+        ReportJob job = new ReportJob();
+        job.setReportType(reportType);
+        job.setParameters(toJson(new LinkedHashMap<>(params)));
+        job.setSubmittedBy(submittedBy);
+        job.setCreatedAt(LocalDateTime.now());
+        ReportJob saved = transactionTemplate.execute(status -> jobs.save(job));
+
+        Long id = saved.getId();
+        // registered before it can start, so run() always finds and removes it
+        FutureTask<Void> task = new FutureTask<>(() -> run(id, report), null);
+        running.put(id, task);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            running.remove(id);
+            transactionTemplate.executeWithoutResult(status ->
+                    jobs.finish(id, UNFINISHED, JobStatus.FAILED, "Report queue is full", LocalDateTime.now()));
+            throw e;
+        }
+        return saved;
+    }
+
+    public Optional<ReportJob> getJob(Long id) {
+        return jobs.findById(id);
+    }
+
+    public List<ReportJob> getRecentJobs() {
+        return jobs.findTop50ByOrderByCreatedAtDesc();
+    }
+
+    /**
+     * Result JSON of a DONE job, or null when there is none (yet).
+     */
+    public String getResult(Long id) {
+        return jobs.findResultById(id);
+    }
+
+    /**
+     * Cancel a queued or running job on behalf of {@code requester}. Returns false when it
+     * had already finished; throws AccessDeniedException when the requester neither
+     * submitted the job nor is an accountant or administrator.
+     */
+    public boolean cancel(Long id, Authentication requester) {
+        ReportJob job = jobs.findById(id).orElse(null);
+        if (job != null && !mayCancel(job, requester)) {
+            throw new AccessDeniedException("Only the user who submitted a report job, an accountant or an administrator can cancel it");
+        }
+        Integer updated = transactionTemplate.execute(status ->
+                jobs.finish(id, UNFINISHED, JobStatus.CANCELLED, null, LocalDateTime.now()));
+        Future<?> future = running.remove(id);
+        if (future != null) {
+            future.cancel(true);
+        }
+        return updated != null && updated > 0;
+    }
+
+    private static boolean mayCancel(ReportJob job, Authentication requester) {
+        if (requester == null) return false;
+        if (job.getSubmittedBy() != null && job.getSubmittedBy().equals(requester.getName())) return true;
+        for (GrantedAuthority authority : requester.getAuthorities()) {
+            if (CANCEL_ANY.contains(authority.getAuthority())) return true;
+        }
+        return false;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("workers", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", executor.getCompletedTaskCount());
+        return stats;
+    }
+
+    @Scheduled(fixedDelayString = "${erp.report-jobs.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        transactionTemplate.executeWithoutResult(status -> jobs.deleteFinishedBefore(cutoff));
+    }
+
+    private void run(Long id, Supplier<Map<String, Object>> report) {
+        try {
+            Integer started = transactionTemplate.execute(status ->
+                    jobs.start(id, JobStatus.QUEUED, JobStatus.RUNNING, LocalDateTime.now()));
+            if (started == null || started == 0) return; // cancelled while queued
+            progress(id, 10);
+
+            Map<String, Object> result;
+            bulkheads.enter(Bulkheads.Workload.ANALYTICS);
+            try {
+                result = report.get();
+            } finally {
+                bulkheads.exit(Bulkheads.Workload.ANALYTICS);
+            }
+            if (Thread.currentThread().isInterrupted()) return;
+            progress(id, 90);
+
+            String json = toJson(result);
+            transactionTemplate.executeWithoutResult(status ->
+                    jobs.complete(id, JobStatus.RUNNING, JobStatus.DONE, json, LocalDateTime.now()));
+        } catch (InterruptedException e) {
+            // cancelled while waiting for an analytics permit
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            String truncated = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+            transactionTemplate.executeWithoutResult(status ->
+                    jobs.finish(id, UNFINISHED, JobStatus.FAILED, truncated, LocalDateTime.now()));
+        } finally {
+            running.remove(id);
+        }
+    }
+
+    private void progress(Long id, int percent) {
+        transactionTemplate.executeWithoutResult(status -> jobs.updateProgress(id, JobStatus.RUNNING, percent));
+    }
+
+    /**
+     * The report to run, with its parameters parsed up front so bad input fails the
+     * submission rather than the job. Keys match the synchronous endpoints' cache keys.
+     */
+    private Supplier<Map<String, Object>> report(String reportType, Map<String, String> params) {
+        if (reportType == null || !REPORT_TYPES.contains(reportType)) {
+            throw new IllegalArgumentException("Unknown report type: " + reportType
+                    + "; expected one of " + REPORT_TYPES);
+        }
+        switch (reportType) {
+            case "income-statement": {
+                LocalDate startDate = date(params, "startDate");
+                LocalDate endDate = date(params, "endDate");
+                return () -> reportCache.get(reportType, startDate, endDate, List.of(),
+                        () -> reportService.generateIncomeStatement(startDate, endDate));
+            }
+            case "cash-flow": {
+                LocalDate startDate = date(params, "startDate");
+                LocalDate endDate = date(params, "endDate");
+                return () -> reportCache.get(reportType, startDate, endDate, List.of(),
+                        () -> reportService.generateCashFlowStatement(startDate, endDate));
+            }
+            case "balance-sheet": {
+                LocalDate asOfDate = date(params, "asOfDate");
+                return () -> reportCache.get(reportType, null, asOfDate, List.of(),
+                        () -> reportService.generateBalanceSheet(asOfDate));
+            }
+            case "trial-balance": {
+                LocalDate asOfDate = date(params, "asOfDate");
+                return () -> reportCache.get(reportType, null, asOfDate, List.of(),
+                        () -> reportService.generateTrialBalance(asOfDate));
+            }
+            default: {
+                Long accountId = accountId(params);
+                LocalDate startDate = date(params, "startDate");
+                LocalDate endDate = date(params, "endDate");
+                return () -> reportCache.get(reportType, null, endDate, List.of(accountId, startDate),
+                        () -> reportService.generateAccountLedger(accountId, startDate, endDate));
+            }
+        }
+    }
+
+    private static LocalDate date(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be YYYY-MM-DD");
+        }
+    }
+
+    private static Long accountId(Map<String, String> params) {
+        String value = params.get("accountId");
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter accountId");
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("accountId must be a number");
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize report: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package com.erp.finance.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out ids for rows inserted with plain JDBC, from the identifier generator Hibernate
+ * uses for the entity. The JDBC writers and Hibernate therefore share one pooled optimizer
+ * and its interpretation of the sequence (allocationSize 50), so an id is never handed
+ * out twice, whichever side reads the sequence first. The sequence is read on the
+ * caller's connection, once per block of 50 ids.
+ */
+@Component
+public class SequenceIdAllocator {
+    private final JdbcTemplate jdbcTemplate;
+    private final SessionFactoryImplementor sessionFactory;
+
+    public SequenceIdAllocator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    /**
+     * Reserve {@code count} ids for new rows of {@code entityType}.
+     */
+    public long[] nextIds(Class<?> entityType, int count) {
+        IdentifierGenerator generator = (IdentifierGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(entityType).getGenerator();
+        return jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+            long[] ids = new long[count];
+            try (StatelessSession session = sessionFactory.withStatelessOptions().connection(connection).openStatelessSession()) {
+                for (int i = 0; i < count; i++) {
+                    ids[i] = ((Number) generator.generate((SharedSessionContractImplementor) session, null)).longValue();
+                }
+            }
+            return ids;
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package com.erp.finance.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind last-login and last-seen timestamps. Logins and authenticated requests only
+ * record the time in memory, keeping the latest per user, and a scheduled flusher writes
+ * them to the users table in two JDBC batches. However many requests a user makes, there
+ * is at most one update per flush interval.
+ *
+ * Entries are keyed by user id, not username, so renaming a user between a request and
+ * the next flush does not lose the time. Updates never move a timestamp backwards. Times not yet flushed are lost if the process
+ * dies, which is acceptable for bookkeeping that is only displayed.
+ */
+@Component
+public class UserActivityTracker {
+    private static final String LAST_LOGIN_SQL =
+            "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+    private static final String LAST_SEEN_SQL =
+            "UPDATE users SET last_seen = ? WHERE id = ? AND (last_seen IS NULL OR last_seen < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, Activity> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedUsers = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public UserActivityTracker(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * A successful login, which also counts as being seen. A null id is ignored.
+     */
+    public void recordLogin(Long userId) {
+        if (userId == null) return;
+        LocalDateTime now = LocalDateTime.now();
+        pending.merge(userId, new Activity(now, now), Activity::latest);
+    }
+
+    /**
+     * An authenticated request. A null id is ignored.
+     */
+    public void recordSeen(Long userId) {
+        if (userId == null) return;
+        pending.merge(userId, new Activity(null, LocalDateTime.now()), Activity::latest);
+    }
+
+    /**
+     * Write recorded times to the database. Each user's entry is removed before it is
+     * written, so activity recorded during the flush waits for the next one. If the write
+     * fails the drained times are merged back.
+     */
+    @Scheduled(fixedDelayString = "${erp.user-activity.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<Long, Activity> drained = new HashMap<>();
+        for (Long userId : pending.keySet()) {
+            Activity activity = pending.remove(userId);
+            if (activity != null) {
+                drained.put(userId, activity);
+            }
+        }
+        if (drained.isEmpty()) return;
+
+        List<Object[]> logins = new ArrayList<>();
+        List<Object[]> seen = new ArrayList<>();
+        drained.forEach((userId, activity) -> {
+            if (activity.lastLogin != null) {
+                Timestamp at = Timestamp.valueOf(activity.lastLogin);
+                logins.add(new Object[]{at, userId, at});
+            }
+            Timestamp at = Timestamp.valueOf(activity.lastSeen);
+            seen.add(new Object[]{at, userId, at});
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!logins.isEmpty()) {
+                    jdbcTemplate.batchUpdate(LAST_LOGIN_SQL, logins);
+                }
+                jdbcTemplate.batchUpdate(LAST_SEEN_SQL, seen);
+            });
+            flushes.incrementAndGet();
+            flushedUsers.addAndGet(drained.size());
+        } catch (RuntimeException e) {
+            failedFlushes.incrementAndGet();
+            drained.forEach((userId, activity) -> pending.merge(userId, activity, Activity::latest));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingUsers", pending.size());
+        stats.put("flushes", flushes.get());
+        stats.put("flushedUsers", flushedUsers.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        return stats;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static final class Activity {
+        final LocalDateTime lastLogin;
+        final LocalDateTime lastSeen;
+
+        Activity(LocalDateTime lastLogin, LocalDateTime lastSeen) {
+            this.lastLogin = lastLogin;
+            this.lastSeen = lastSeen;
+        }
+
+        static Activity latest(Activity a, Activity b) {
+            return new Activity(max(a.lastLogin, b.lastLogin), max(a.lastSeen, b.lastSeen));
+        }
+
+        private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            return a.isAfter(b) ? a : b;
+        }
+    }
+}
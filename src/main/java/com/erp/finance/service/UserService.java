@@ -21,6 +21,12 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private DatabaseUserDetailsService userDetailsService;
+    
+    @Autowired
+    private UserActivityTracker activityTracker;
+    
     public List<User> getAllUsers() {
         List<User> users = new ArrayList<>();
         userRepository.findAll().forEach(users::add);
@@ -57,6 +63,8 @@ public class UserService {
     
     public User updateUser(Long id, User userDetails) {
         User user = getUserById(id);
+        // roles, status and username are cached for authentication
+        userDetailsService.evict(user.getUsername());
         
         // Update only if username changed and not already taken
         if (userDetails.getUsername() != null && !user.getUsername().equals(userDetails.getUsername())) {
@@ -105,19 +113,22 @@ public class UserService {
     
     public void deleteUser(Long id) {
         User user = getUserById(id);
+        userDetailsService.evict(user.getUsername());
         userRepository.delete(user);
     }
     
     public User changePassword(Long id, String newPassword) {
         User user = getUserById(id);
         user.setPassword(passwordEncoder.encode(newPassword));
+        userDetailsService.evict(user.getUsername());
         return userRepository.save(user);
     }
     
-    public User updateLastLogin(String username) {
-        User user = getUserByUsername(username);
-        user.setLastLogin(LocalDateTime.now());
-        return userRepository.save(user);
+    /**
+     * Recorded in memory and written in the tracker's next batch, off the login path
+     */
+    public void updateLastLogin(Long userId) {
+        activityTracker.recordLogin(userId);
     }
     
     public List<User> getUsersByRole(User.UserRole role) {
@@ -4,8 +4,10 @@ import com.erp.finance.domain.APInvoice;
 import com.erp.finance.domain.APPayment;
 import com.erp.finance.domain.Vendor;
 import com.erp.finance.service.APService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.List;
@@ -14,9 +16,11 @@ import java.util.List;
 @RequestMapping("/api/ap")
 public class APController {
     private final APService apService;
+    private final ObjectMapper objectMapper;
 
-    public APController(APService apService) {
+    public APController(APService apService, ObjectMapper objectMapper) {
         this.apService = apService;
+        this.objectMapper = objectMapper;
     }
 
     // Invoice endpoints
@@ -25,6 +29,22 @@ public class APController {
         return apService.getAllInvoices();
     }
 
+    @GetMapping("/invoices/page")
+    public KeysetPage<APInvoice> getInvoicePage(@RequestParam(value = "after", defaultValue = "0") Long after,
+                                                 @RequestParam(value = "limit", defaultValue = "" + KeysetPage.DEFAULT_LIMIT) int limit,
+                                                 @RequestParam(value = "vendorId", required = false) Long vendorId,
+                                                 @RequestParam(value = "status", required = false) APInvoice.InvoiceStatus status) {
+        int size = KeysetPage.clampLimit(limit);
+        return KeysetPage.of(apService.getInvoicePage(after, size, vendorId, status), size, APInvoice::getId);
+    }
+
+    @GetMapping(value = "/invoices/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamInvoices(@RequestParam(value = "vendorId", required = false) Long vendorId,
+                                                                @RequestParam(value = "status", required = false) APInvoice.InvoiceStatus status) {
+        return ResponseEntity.ok().contentType(NdjsonStream.MEDIA_TYPE)
+                .body(NdjsonStream.of(objectMapper, (after, size) -> apService.getInvoicePage(after, size, vendorId, status), APInvoice::getId));
+    }
+
     @GetMapping("/invoices/{id}")
     public ResponseEntity<APInvoice> getInvoiceById(@PathVariable("id") Long id) {
         try {
@@ -3,20 +3,28 @@ package com.erp.finance.web;
 import com.erp.finance.domain.ARInvoice;
 import com.erp.finance.domain.ARPayment;
 import com.erp.finance.domain.Customer;
+import com.erp.finance.service.ARAgingIndex;
 import com.erp.finance.service.ARService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/ar")
 public class ARController {
     private final ARService arService;
+    private final ARAgingIndex agingIndex;
+    private final ObjectMapper objectMapper;
 
-    public ARController(ARService arService) {
+    public ARController(ARService arService, ARAgingIndex agingIndex, ObjectMapper objectMapper) {
         this.arService = arService;
+        this.agingIndex = agingIndex;
+        this.objectMapper = objectMapper;
     }
 
     // Invoice endpoints
@@ -25,6 +33,22 @@ public class ARController {
         return arService.getAllInvoices();
     }
 
+    @GetMapping("/invoices/page")
+    public KeysetPage<ARInvoice> getInvoicePage(@RequestParam(value = "after", defaultValue = "0") Long after,
+                                                 @RequestParam(value = "limit", defaultValue = "" + KeysetPage.DEFAULT_LIMIT) int limit,
+                                                 @RequestParam(value = "customerId", required = false) Long customerId,
+                                                 @RequestParam(value = "status", required = false) ARInvoice.InvoiceStatus status) {
+        int size = KeysetPage.clampLimit(limit);
+        return KeysetPage.of(arService.getInvoicePage(after, size, customerId, status), size, ARInvoice::getId);
+    }
+
+    @GetMapping(value = "/invoices/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamInvoices(@RequestParam(value = "customerId", required = false) Long customerId,
+                                                                @RequestParam(value = "status", required = false) ARInvoice.InvoiceStatus status) {
+        return ResponseEntity.ok().contentType(NdjsonStream.MEDIA_TYPE)
+                .body(NdjsonStream.of(objectMapper, (after, size) -> arService.getInvoicePage(after, size, customerId, status), ARInvoice::getId));
+    }
+
     @GetMapping("/invoices/{id}")
     public ResponseEntity<ARInvoice> getInvoiceById(@PathVariable("id") Long id) {
         try {
@@ -106,6 +130,21 @@ public class ARController {
         return arService.getPaymentHistory();
     }
 
+    // Aging endpoints
+    /**
+     * Open balances per customer in current, 1-30, 31-60, 61-90, 91-120 and 120+ days
+     * past due, plus totals.
+     */
+    @GetMapping("/aging")
+    public Map<String, Object> getAging(@RequestParam(value = "customerId", required = false) Long customerId) {
+        return agingIndex.report(customerId);
+    }
+
+    @GetMapping("/aging/stats")
+    public Map<String, Object> getAgingStats() {
+        return agingIndex.stats();
+    }
+
     // Customer endpoints
     @GetMapping("/customers")
     public List<Customer> getAllCustomers() {
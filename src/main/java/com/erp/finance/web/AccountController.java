@@ -2,19 +2,26 @@ package com.erp.finance.web;
 
 import com.erp.finance.domain.Account;
 import com.erp.finance.repository.AccountRepository;
+import com.erp.finance.service.AccountCache;
+import com.erp.finance.service.ReportCache;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
     private final AccountRepository accounts;
+    private final AccountCache accountCache;
+    private final ReportCache reportCache;
 
-    public AccountController(AccountRepository accounts) {
+    public AccountController(AccountRepository accounts, AccountCache accountCache, ReportCache reportCache) {
         this.accounts = accounts;
+        this.accountCache = accountCache;
+        this.reportCache = reportCache;
     }
 
     @GetMapping
@@ -28,6 +35,7 @@ public class AccountController {
             return ResponseEntity.badRequest().build();
         }
         Account saved = accounts.save(account);
+        reportCache.accountsChanged();
         return ResponseEntity.created(URI.create("/api/accounts/" + saved.getId())).body(saved);
     }
 
@@ -45,6 +53,8 @@ public class AccountController {
         }
         account.setId(id);
         Account saved = accounts.save(account);
+        accountCache.evict(id);
+        reportCache.accountsChanged();
         return ResponseEntity.ok(saved);
     }
 
@@ -54,6 +64,13 @@ public class AccountController {
             return ResponseEntity.notFound().build();
         }
         accounts.deleteById(id);
+        accountCache.evict(id);
+        reportCache.accountsChanged();
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return accountCache.stats();
+    }
 }
@@ -0,0 +1,53 @@
+package com.erp.finance.web;
+
+import com.erp.finance.domain.AuditEvent;
+import com.erp.finance.repository.AuditEventRepository;
+import com.erp.finance.service.AuditTrail;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final AuditEventRepository events;
+    private final AuditTrail auditTrail;
+
+    public AuditController(AuditEventRepository events, AuditTrail auditTrail) {
+        this.events = events;
+        this.auditTrail = auditTrail;
+    }
+
+    /**
+     * Keyset-paginated audit events, oldest first, optionally for one entity type or record
+     * and within [from, to). Events reach this table shortly after the change they describe.
+     */
+    @GetMapping
+    public KeysetPage<AuditEvent> page(@RequestParam(value = "entityType", required = false) String entityType,
+                                       @RequestParam(value = "entityId", required = false) String entityId,
+                                       @RequestParam(value = "from", required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                       @RequestParam(value = "to", required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                       @RequestParam(value = "after", defaultValue = "0") Long after,
+                                       @RequestParam(value = "limit", defaultValue = "" + KeysetPage.DEFAULT_LIMIT) int limit) {
+        int size = KeysetPage.clampLimit(limit);
+        return KeysetPage.of(events.findPage(after, entityType, entityId,
+                from != null ? from : EARLIEST, to != null ? to : LATEST, PageRequest.of(0, size)),
+                size, AuditEvent::getId);
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        return auditTrail.stats();
+    }
+}
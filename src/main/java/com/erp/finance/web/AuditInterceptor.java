@@ -0,0 +1,87 @@
+package com.erp.finance.web;
+
+import com.erp.finance.service.AuditTrail;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Records every successful (status below 400) POST, PUT or DELETE on the audited paths
+ * (erp.audit.paths, registered in WebConfig) to the audit trail. The entity type is the
+ * path up to its first variable, e.g. "ap/invoices" for /api/ap/invoices/{id}/pay. The
+ * entity id is the path's id variable, else the Location header, else the id of the
+ * returned entity (see AuditResponseAdvice). Handlers can add a description with
+ * {@link #describe(String)}.
+ */
+@Component
+public class AuditInterceptor implements HandlerInterceptor {
+    static final String ENTITY_ID_ATTRIBUTE = AuditInterceptor.class.getName() + ".entityId";
+    private static final String DETAILS_ATTRIBUTE = AuditInterceptor.class.getName() + ".details";
+
+    private final AuditTrail auditTrail;
+
+    public AuditInterceptor(AuditTrail auditTrail) {
+        this.auditTrail = auditTrail;
+    }
+
+    /**
+     * Details for the audit event of the current request, e.g. a status transition.
+     */
+    public static void describe(String details) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(DETAILS_ATTRIBUTE, details, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    static boolean isMutation(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "POST".equals(method) || "PUT".equals(method) || "DELETE".equals(method);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!isMutation(request) || ex != null || response.getStatus() >= 400) {
+            return;
+        }
+        Object matched = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String pattern = matched != null ? matched.toString() : request.getRequestURI();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        auditTrail.record(authentication != null ? authentication.getName() : "anonymous",
+                request.getMethod() + " " + pattern,
+                entityType(pattern),
+                entityId(request, response),
+                response.getStatus(),
+                (String) request.getAttribute(DETAILS_ATTRIBUTE));
+    }
+
+    private static String entityType(String pattern) {
+        String path = pattern.startsWith("/api/") ? pattern.substring(5) : pattern;
+        int variable = path.indexOf("/{");
+        return variable >= 0 ? path.substring(0, variable) : path;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String entityId(HttpServletRequest request, HttpServletResponse response) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables != null && !variables.isEmpty()) {
+            return variables.containsKey("id") ? variables.get("id") : variables.values().iterator().next();
+        }
+        String location = response.getHeader("Location");
+        if (location != null) {
+            return location.substring(location.lastIndexOf('/') + 1);
+        }
+        Object id = request.getAttribute(ENTITY_ID_ATTRIBUTE);
+        return id != null ? id.toString() : null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.erp.finance.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Remembers the id of the entity a POST, PUT or DELETE returns, so AuditInterceptor can
+ * name records created without an id in the path or a Location header.
+ */
+@ControllerAdvice
+public class AuditResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || body instanceof Map || body instanceof Collection || body instanceof CharSequence
+                || !(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        if (AuditInterceptor.isMutation(servletRequest)) {
+            BeanWrapper bean = PropertyAccessorFactory.forBeanPropertyAccess(body);
+            if (bean.isReadableProperty("id")) {
+                Object id = bean.getPropertyValue("id");
+                if (id != null) {
+                    servletRequest.setAttribute(AuditInterceptor.ENTITY_ID_ATTRIBUTE, id);
+                }
+            }
+        }
+        return body;
+    }
+}
@@ -1,8 +1,19 @@
 package com.erp.finance.web;
 
+import com.erp.finance.service.AuthTokenService;
+import com.erp.finance.service.DatabaseUserDetailsService;
+import com.erp.finance.service.UserActivityTracker;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -13,6 +24,44 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
+    private final AuthenticationManager authenticationManager;
+    private final AuthTokenService authTokenService;
+    private final UserActivityTracker activityTracker;
+    private final UserDetailsService userDetailsService;
+
+    public AuthController(AuthenticationManager authenticationManager, AuthTokenService authTokenService,
+                          UserActivityTracker activityTracker, UserDetailsService userDetailsService) {
+        this.authenticationManager = authenticationManager;
+        this.authTokenService = authTokenService;
+        this.activityTracker = activityTracker;
+        this.userDetailsService = userDetailsService;
+    }
+
+    /**
+     * Check the password once and return a short-lived bearer token for later requests.
+     */
+    @PostMapping("/login")
+    public ResponseEntity<Map<String, Object>> login(@RequestBody Map<String, String> credentials) {
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(
+                    credentials.get("username"), credentials.get("password")));
+        } catch (AuthenticationException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid username or password"));
+        }
+        activityTracker.recordLogin(DatabaseUserDetailsService.userId(authentication));
+        Map<String, Object> body = new HashMap<>();
+        // authentication erased the password from its principal; the cached copy still has the hash
+        String passwordHash = userDetailsService.loadUserByUsername(authentication.getName()).getPassword();
+        body.put("token", authTokenService.issue(authentication, passwordHash));
+        body.put("tokenType", "Bearer");
+        body.put("expiresIn", authTokenService.getTtlSeconds());
+        body.put("username", authentication.getName());
+        body.put("roles", authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.toList()));
+        return ResponseEntity.ok(body);
+    }
 
     @GetMapping("/me")
     public Map<String, Object> getCurrentUser(Authentication authentication) {
@@ -0,0 +1,77 @@
+package com.erp.finance.web;
+
+import com.erp.finance.service.AuthTokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates "Authorization: Bearer <token>" requests from the token issued at
+ * /api/auth/login. The token's user is looked up on every request through the cached
+ * UserDetailsService, so a user who has been deleted, deactivated or locked, or whose
+ * password has changed since the token was issued, is refused before the token expires,
+ * and role changes apply straight away. An invalid or expired token, or such a user, is
+ * answered 401 rather than passed on, so the client knows to log in again. Requests without a bearer token fall through to HTTP Basic. Added to the
+ * security chain by SecurityConfig, not registered as a bean.
+ */
+public class BearerTokenFilter extends OncePerRequestFilter {
+    private static final String PREFIX = "Bearer ";
+
+    private final AuthTokenService tokens;
+    private final UserDetailsService users;
+
+    public BearerTokenFilter(AuthTokenService tokens, UserDetailsService users) {
+        this.tokens = tokens;
+        this.users = users;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith(PREFIX)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        AuthTokenService.Principal principal = tokens.verify(header.substring(PREFIX.length()).trim()).orElse(null);
+        UserDetails user = principal != null ? currentUser(principal) : null;
+        if (user == null) {
+            response.setHeader("WWW-Authenticate", "Bearer error=\"invalid_token\"");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        // the user details as principal, like HTTP Basic, so the user id travels with it
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                user, null, user.getAuthorities());
+        authentication.eraseCredentials();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * The token's user if it still exists, may log in and has the password the token was
+     * issued against, otherwise null.
+     */
+    private UserDetails currentUser(AuthTokenService.Principal principal) {
+        UserDetails user;
+        try {
+            user = users.loadUserByUsername(principal.getUsername());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+        return user.isEnabled() && user.isAccountNonLocked() && user.isAccountNonExpired()
+                && tokens.isCurrent(principal, user.getPassword()) ? user : null;
+    }
+}
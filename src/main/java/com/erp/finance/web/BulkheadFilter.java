@@ -0,0 +1,125 @@
+package com.erp.finance.web;
+
+import com.erp.finance.service.Bulkheads;
+import com.erp.finance.service.Bulkheads.Workload;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits each /api request through its workload's bulkhead. GETs matching
+ * erp.bulkhead.analytics-paths, NDJSON /stream endpoints and bank statement imports are
+ * analytics, other GETs are reads, everything else is a write. Paths in
+ * erp.bulkhead.exempt-paths (no database work, e.g. /api/auth/me) take no permit. A
+ * request that gets no permit within the queue timeout is answered 429 with Retry-After.
+ * Streaming responses keep their permit until the stream completes.
+ */
+@Component
+public class BulkheadFilter extends OncePerRequestFilter {
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+    private final Bulkheads bulkheads;
+    private final List<String> analyticsPaths;
+    private final List<String> analyticsWritePaths;
+    private final List<String> exemptPaths;
+
+    public BulkheadFilter(Bulkheads bulkheads,
+                          @Value("${erp.bulkhead.analytics-paths:/api/reports/**,/api/recon/matches,/api/gl/trial-balance*,/api/budgets/*/variance-analysis}")
+                          List<String> analyticsPaths,
+                          @Value("${erp.bulkhead.analytics-write-paths:/api/recon/import/**}")
+                          List<String> analyticsWritePaths,
+                          @Value("${erp.bulkhead.exempt-paths:/api/auth/me}")
+                          List<String> exemptPaths) {
+        this.bulkheads = bulkheads;
+        this.analyticsPaths = analyticsPaths;
+        this.analyticsWritePaths = analyticsWritePaths;
+        this.exemptPaths = exemptPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !bulkheads.isEnabled() || !request.getRequestURI().startsWith("/api/")
+                || "OPTIONS".equals(request.getMethod()) || matches(exemptPaths, request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Workload workload = classify(request);
+        boolean admitted;
+        try {
+            admitted = bulkheads.tryEnter(workload);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(bulkheads.retryAfterSeconds(workload)));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many concurrent " + workload.name().toLowerCase() + " requests\"}");
+            return;
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                bulkheads.exit(workload);
+            }
+        };
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) { release.run(); }
+                    @Override
+                    public void onTimeout(AsyncEvent event) { release.run(); }
+                    @Override
+                    public void onError(AsyncEvent event) { release.run(); }
+                    @Override
+                    public void onStartAsync(AsyncEvent event) { }
+                });
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private Workload classify(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        // report jobs are submitted and polled on request threads but computed in the background
+        if (path.startsWith("/api/reports/jobs")) {
+            return Workload.READ;
+        }
+        // streams hold their permit (and a connection per page) for the whole response
+        if (path.endsWith("/stream")) {
+            return Workload.ANALYTICS;
+        }
+        if (!"GET".equals(request.getMethod())) {
+            return matches(analyticsWritePaths, path) ? Workload.ANALYTICS : Workload.WRITE;
+        }
+        return matches(analyticsPaths, path) ? Workload.ANALYTICS : Workload.READ;
+    }
+
+    private static boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (PATHS.match(pattern, path)) return true;
+        }
+        return false;
+    }
+}
@@ -1,20 +1,43 @@
 package com.erp.finance.web;
 
+import com.erp.finance.service.BalanceAccumulator;
+import com.erp.finance.service.Bulkheads;
+import com.erp.finance.service.ColumnarLedger;
+import com.erp.finance.service.DailyBalanceIndex;
 import com.erp.finance.service.GLService;
+import com.erp.finance.service.PeriodBalanceService;
+import com.erp.finance.service.PostingSequencer;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/gl")
 public class GLController {
     private final GLService glService;
+    private final PeriodBalanceService periodBalanceService;
+    private final BalanceAccumulator balanceAccumulator;
+    private final PostingSequencer postingSequencer;
+    private final DailyBalanceIndex dailyBalanceIndex;
+    private final ColumnarLedger columnarLedger;
+    private final Bulkheads bulkheads;
 
-    public GLController(GLService glService) {
+    public GLController(GLService glService, PeriodBalanceService periodBalanceService,
+                        BalanceAccumulator balanceAccumulator, PostingSequencer postingSequencer,
+                        DailyBalanceIndex dailyBalanceIndex, ColumnarLedger columnarLedger,
+                        Bulkheads bulkheads) {
         this.glService = glService;
+        this.periodBalanceService = periodBalanceService;
+        this.balanceAccumulator = balanceAccumulator;
+        this.postingSequencer = postingSequencer;
+        this.dailyBalanceIndex = dailyBalanceIndex;
+        this.columnarLedger = columnarLedger;
+        this.bulkheads = bulkheads;
     }
 
     @GetMapping("/trial-balance")
@@ -30,4 +53,34 @@ public class GLController {
         LocalDate end = LocalDate.parse(endDate);
         return glService.computeTrialBalanceByDateRange(start, end);
     }
+
+    @PostMapping("/period-balances/rebuild")
+    public Map<String, Object> rebuildPeriodBalances(@RequestParam(value = "period", required = false) String period) {
+        return periodBalanceService.rebuild(period);
+    }
+
+    @GetMapping("/balance-accumulator/stats")
+    public Map<String, Object> balanceAccumulatorStats() {
+        return balanceAccumulator.stats();
+    }
+
+    @GetMapping("/posting-sequencer/stats")
+    public Map<String, Object> postingSequencerStats() {
+        return postingSequencer.stats();
+    }
+
+    @GetMapping("/balance-index/stats")
+    public Map<String, Object> balanceIndexStats() {
+        return dailyBalanceIndex.stats();
+    }
+
+    @GetMapping("/columnar-ledger/stats")
+    public Map<String, Object> columnarLedgerStats() {
+        return columnarLedger.stats();
+    }
+
+    @GetMapping("/bulkheads/stats")
+    public Map<String, Object> bulkheadStats() {
+        return bulkheads.stats();
+    }
 }
@@ -4,14 +4,33 @@ import com.erp.finance.domain.JournalEntry;
 import com.erp.finance.domain.JournalLine;
 import com.erp.finance.domain.JournalStatus;
 import com.erp.finance.repository.JournalRepository;
+import com.erp.finance.service.BudgetService;
+import com.erp.finance.service.ColumnarLedger;
+import com.erp.finance.service.DailyBalanceIndex;
+import com.erp.finance.service.PeriodLock;
+import com.erp.finance.service.PostingSequencer;
 import com.erp.finance.service.PostingService;
+import com.erp.finance.service.ReportCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/journals")
@@ -19,19 +38,67 @@ import java.net.URI;
 public class JournalController {
     private final JournalRepository journals;
     private final PostingService posting;
+    private final PostingSequencer sequencer;
+    private final PeriodLock periodLock;
+    private final DailyBalanceIndex balanceIndex;
+    private final ColumnarLedger columnarLedger;
+    private final ReportCache reportCache;
+    private final BudgetService budgetService;
+    private final ObjectMapper objectMapper;
 
-    public JournalController(JournalRepository journals, PostingService posting) {
+    public JournalController(JournalRepository journals, PostingService posting, PostingSequencer sequencer,
+                             PeriodLock periodLock, DailyBalanceIndex balanceIndex, ColumnarLedger columnarLedger,
+                             ReportCache reportCache, BudgetService budgetService, ObjectMapper objectMapper) {
         this.journals = journals;
         this.posting = posting;
+        this.sequencer = sequencer;
+        this.periodLock = periodLock;
+        this.balanceIndex = balanceIndex;
+        this.columnarLedger = columnarLedger;
+        this.reportCache = reportCache;
+        this.budgetService = budgetService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
     public Iterable<JournalEntry> list() {
-        return journals.findAll();
+        return journals.findAllWithLines();
+    }
+
+    /**
+     * Keyset-paginated journals with their lines, ordered by id.
+     */
+    @GetMapping("/page")
+    public KeysetPage<JournalEntry> page(@RequestParam(value = "after", defaultValue = "0") Long after,
+                                         @RequestParam(value = "limit", defaultValue = "" + KeysetPage.DEFAULT_LIMIT) int limit,
+                                         @RequestParam(value = "period", required = false) String period,
+                                         @RequestParam(value = "status", required = false) JournalStatus status) {
+        int size = KeysetPage.clampLimit(limit);
+        return KeysetPage.of(fetchPage(after, size, period, status), size, JournalEntry::getId);
+    }
+
+    /**
+     * All matching journals as newline-delimited JSON, read one page at a time.
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(value = "period", required = false) String period,
+                                                        @RequestParam(value = "status", required = false) JournalStatus status) {
+        return ResponseEntity.ok().contentType(NdjsonStream.MEDIA_TYPE)
+                .body(NdjsonStream.of(objectMapper, (after, size) -> fetchPage(after, size, period, status), JournalEntry::getId));
+    }
+
+    // ids first so the limit applies to journals rather than to joined line rows
+    private List<JournalEntry> fetchPage(Long after, int size, String period, JournalStatus status) {
+        List<Long> ids = journals.findPageIds(after, period, status, PageRequest.of(0, size));
+        return ids.isEmpty() ? List.of() : journals.findWithLinesByIdIn(ids);
     }
 
     @PostMapping
-    public ResponseEntity<JournalEntry> create(@Valid @RequestBody JournalEntry entry) {
+    public ResponseEntity<?> create(@Valid @RequestBody JournalEntry entry) {
+        // a journal only reaches the ledger through /post, which applies it to the balances
+        if (entry.getStatus() == JournalStatus.POSTED) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Create the journal unposted and post it with POST /api/journals/{id}/post"));
+        }
         // lines cascade via JPA; ensure bidirectional linkage
         if (entry.getLines() != null) {
             for (JournalLine line : entry.getLines()) {
@@ -45,70 +112,112 @@ public class JournalController {
     @PostMapping("/{id}/approve")
     public ResponseEntity<?> approve(@PathVariable("id") Long id) {
         try {
-            System.out.println("=== APPROVE CALLED FOR JOURNAL ID: " + id + " ===");
-            
             java.util.Optional<JournalEntry> opt = journals.findById(id);
             if (opt.isEmpty()) {
-                System.out.println("Journal not found: " + id);
                 return ResponseEntity.notFound().build();
             }
             
             JournalEntry je = opt.get();
-            System.out.println("Journal loaded: " + je.getId() + ", Status: " + je.getStatus());
-            System.out.println("Journal has " + je.getLines().size() + " lines");
-            
+            JournalStatus previous = je.getStatus();
             je.setStatus(JournalStatus.APPROVAL);
-            System.out.println("Status changed to APPROVAL");
-            
             JournalEntry saved = journals.save(je);
-            System.out.println("Journal saved successfully");
-            
             saved.getLines().size(); // force load
-            System.out.println("Lines loaded: " + saved.getLines().size());
-            
-            System.out.println("Returning response...");
+            AuditInterceptor.describe("status " + previous + " -> " + JournalStatus.APPROVAL);
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
-            System.err.println("========================================");
-            System.err.println("ERROR IN APPROVE ENDPOINT:");
-            System.err.println("Exception: " + e.getClass().getName());
-            System.err.println("Message: " + e.getMessage());
-            System.err.println("========================================");
-            e.printStackTrace();
             return ResponseEntity.status(500).body(java.util.Map.of("error", e.getMessage() != null ? e.getMessage() : "Unknown error"));
         }
     }
 
     @PostMapping("/{id}/post")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // the sequencer commits; don't hold a connection while waiting
     public ResponseEntity<JournalEntry> post(@PathVariable("id") Long id) {
-        java.util.Optional<JournalEntry> opt = journals.findById(id);
-        if (opt.isEmpty()) return ResponseEntity.notFound().build();
-        JournalEntry je = opt.get();
+        PostingSequencer.Result result;
+        try {
+            result = sequencer.post(id).get(sequencer.getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (ExecutionException | TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        switch (result.getOutcome()) {
+            case NOT_FOUND:
+                return ResponseEntity.notFound().build();
+            case REJECTED:
+                return ResponseEntity.badRequest().body(result.getJournal());
+            default:
+                return ResponseEntity.ok(result.getJournal());
+        }
+    }
+
+    /**
+     * Post several journals in one transaction. Either every journal is posted or,
+     * if any of them is missing, already posted or unbalanced, none are.
+     */
+    @PostMapping("/post-batch")
+    public ResponseEntity<?> postBatch(@RequestBody List<Long> ids) {
+        // read after the sequencer's batch in flight, so "already posted" is current
+        sequencer.holdPostingsUntilCompletion();
+        Map<Long, JournalEntry> byId = new LinkedHashMap<>();
+        for (JournalEntry je : journals.findAllById(ids)) {
+            byId.put(je.getId(), je);
+        }
+
+        List<Map<String, Object>> errors = new ArrayList<>();
+        List<JournalEntry> toPost = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            JournalEntry je = byId.get(id);
+            if (je == null) {
+                errors.add(Map.of("journalId", id, "error", "Journal not found"));
+            } else if (je.getStatus() == JournalStatus.POSTED) {
+                errors.add(Map.of("journalId", id, "error", "Journal already posted"));
+            } else if (periodLock.isLocked(je.getPeriod())) {
+                errors.add(Map.of("journalId", id, "error", "Period " + je.getPeriod() + " is closed"));
+            } else if (!isBalanced(je)) {
+                errors.add(Map.of("journalId", id, "error", "Debits and credits do not balance"));
+            } else {
+                toPost.add(je);
+            }
+        }
+        if (!errors.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("errors", errors));
+        }
+
+        sequencer.postInCurrentTransaction(toPost);
+        return ResponseEntity.ok(Map.of("posted", toPost.size()));
+    }
 
+    private boolean isBalanced(JournalEntry je) {
         BigDecimal totalDebit = BigDecimal.ZERO;
         BigDecimal totalCredit = BigDecimal.ZERO;
         for (JournalLine line : je.getLines()) {
             totalDebit = totalDebit.add(line.getDebit());
             totalCredit = totalCredit.add(line.getCredit());
         }
-        if (totalDebit.compareTo(totalCredit) != 0) {
-            return ResponseEntity.badRequest().body(je);
-        }
-        // apply posting to account balances
-        for (JournalLine line : je.getLines()) {
-            posting.applyLineToAccount(line);
-        }
-        je.setStatus(JournalStatus.POSTED);
-        journals.save(je);
-        return ResponseEntity.ok(je);
+        return totalDebit.compareTo(totalCredit) == 0;
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable("id") Long id) {
-        if (!journals.existsById(id)) {
+        java.util.Optional<JournalEntry> opt = journals.findById(id);
+        if (opt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        if (periodLock.isLocked(opt.get().getPeriod())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        if (opt.get().getStatus() == JournalStatus.POSTED) {
+            // back out of accounts.balance and the period snapshots in this transaction
+            posting.unpostJournal(opt.get());
+        }
         journals.deleteById(id);
+        if (opt.get().getStatus() == JournalStatus.POSTED) {
+            balanceIndex.markStale();
+            columnarLedger.markStale();
+            reportCache.ledgerChanged(opt.get().getDate());
+            budgetService.ledgerChanged(opt.get().getDate());
+        }
         return ResponseEntity.noContent().build();
     }
 }
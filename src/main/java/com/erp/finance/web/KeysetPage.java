@@ -0,0 +1,36 @@
+package com.erp.finance.web;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of rows ordered by id. Pass {@code nextAfter} back as {@code after} to fetch
+ * the following page; it is null once the last page has been returned.
+ */
+public class KeysetPage<T> {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private final List<T> items;
+    private final Long nextAfter;
+    private final int limit;
+
+    private KeysetPage(List<T> items, Long nextAfter, int limit) {
+        this.items = items;
+        this.nextAfter = nextAfter;
+        this.limit = limit;
+    }
+
+    public static <T> KeysetPage<T> of(List<T> items, int limit, Function<T, Long> idOf) {
+        Long nextAfter = items.size() < limit ? null : idOf.apply(items.get(items.size() - 1));
+        return new KeysetPage<>(items, nextAfter, limit);
+    }
+
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public List<T> getItems() { return items; }
+    public Long getNextAfter() { return nextAfter; }
+    public int getLimit() { return limit; }
+}
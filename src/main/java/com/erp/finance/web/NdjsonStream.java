@@ -0,0 +1,42 @@
+package com.erp.finance.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Writes every row as newline-delimited JSON, fetching one keyset page at a time so
+ * only a single page is ever held in memory.
+ */
+public final class NdjsonStream {
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType("application/x-ndjson");
+    private static final int PAGE_SIZE = 500;
+    private static final byte[] NEWLINE = {'\n'};
+
+    private NdjsonStream() {}
+
+    /**
+     * @param fetchPage returns up to {@code limit} rows with id greater than {@code after}
+     */
+    public static <T> StreamingResponseBody of(ObjectMapper mapper,
+                                               BiFunction<Long, Integer, List<T>> fetchPage,
+                                               Function<T, Long> idOf) {
+        return out -> {
+            Long after = 0L;
+            while (true) {
+                List<T> page = fetchPage.apply(after, PAGE_SIZE);
+                for (T row : page) {
+                    out.write(mapper.writeValueAsBytes(row));
+                    out.write(NEWLINE);
+                }
+                out.flush();
+                if (page.size() < PAGE_SIZE) break;
+                after = idOf.apply(page.get(page.size() - 1));
+            }
+        };
+    }
+}
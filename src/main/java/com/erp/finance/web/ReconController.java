@@ -3,11 +3,13 @@ package com.erp.finance.web;
 import com.erp.finance.domain.ReconItem;
 import com.erp.finance.domain.ReconStatus;
 import com.erp.finance.repository.ReconItemRepository;
+import com.erp.finance.service.ReconImportService;
 import com.erp.finance.service.ReconService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 
@@ -16,10 +18,12 @@ import java.util.List;
 public class ReconController {
     private final ReconItemRepository reconItems;
     private final ReconService reconService;
+    private final ReconImportService importService;
 
-    public ReconController(ReconItemRepository reconItems, ReconService reconService) {
+    public ReconController(ReconItemRepository reconItems, ReconService reconService, ReconImportService importService) {
         this.reconItems = reconItems;
         this.reconService = reconService;
+        this.importService = importService;
     }
 
     @GetMapping
@@ -34,9 +38,38 @@ public class ReconController {
         return ResponseEntity.created(URI.create("/api/recon")).body(saved);
     }
 
+    /**
+     * Stream a raw bank statement (csv, ofx or camt053) from the request body.
+     * Rows are inserted in batches as they are parsed; bad rows are reported, not fatal.
+     */
+    @PostMapping("/import/stream")
+    public ResponseEntity<?> importStatement(@RequestParam("format") String format, InputStream body) {
+        try {
+            ReconImportService.ImportProgress progress = importService.importStatement(format, body);
+            if ("FAILED".equals(progress.getStatus())) {
+                return ResponseEntity.badRequest().body(progress);
+            }
+            return ResponseEntity.created(URI.create("/api/recon/imports/" + progress.getId())).body(progress);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/imports")
+    public List<ReconImportService.ImportProgress> imports() {
+        return importService.recentImports();
+    }
+
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<ReconImportService.ImportProgress> importProgress(@PathVariable("id") String id) {
+        return importService.findImport(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/matches")
-    public List<ReconService.MatchSuggestion> matches(@RequestParam("period") String period) {
-        return reconService.suggestMatches(period);
+    public List<ReconService.MatchSuggestion> matches(@RequestParam("period") String period,
+                                                      @RequestParam(value = "dateWindowDays", required = false) Integer dateWindowDays,
+                                                      @RequestParam(value = "limit", defaultValue = "" + ReconService.DEFAULT_MATCH_LIMIT) int limit) {
+        return reconService.suggestMatches(period, dateWindowDays, limit);
     }
 
     @PostMapping("/{id}/resolve")
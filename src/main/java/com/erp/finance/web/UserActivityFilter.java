@@ -0,0 +1,45 @@
+package com.erp.finance.web;
+
+import com.erp.finance.service.DatabaseUserDetailsService;
+import com.erp.finance.service.UserActivityTracker;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records the last-seen time of the user behind each authenticated /api request. Runs
+ * after the security filter chain, so the request is already authenticated; the write
+ * itself happens later in UserActivityTracker.
+ */
+@Component
+public class UserActivityFilter extends OncePerRequestFilter {
+    private final UserActivityTracker activityTracker;
+
+    public UserActivityFilter(UserActivityTracker activityTracker) {
+        this.activityTracker = activityTracker;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            activityTracker.recordSeen(DatabaseUserDetailsService.userId(authentication));
+        }
+        chain.doFilter(request, response);
+    }
+}
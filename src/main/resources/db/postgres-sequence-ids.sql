@@ -0,0 +1,40 @@
+-- Move an existing PostgreSQL database from IDENTITY ids to the pooled sequences
+-- (<table>_seq, INCREMENT BY 50) the entities now use. Run once, with the application
+-- stopped, before starting the new version:
+--   psql -d erp_finance -f src/main/resources/db/postgres-sequence-ids.sql
+-- Each sequence is moved past the current MAX(id) plus one allocation block so new ids
+-- never collide with existing rows. Tables that do not exist yet are skipped; Hibernate
+-- creates them with their sequences on startup.
+
+DO $$
+DECLARE
+    t text;
+BEGIN
+    FOREACH t IN ARRAY ARRAY[
+        'accounts',
+        'account_period_balance',
+        'ap_invoices',
+        'ap_payments',
+        'ar_invoices',
+        'ar_invoice_items',
+        'ar_payments',
+        'budgets',
+        'budget_lines',
+        'company_settings',
+        'customers',
+        'depreciation_runs',
+        'fixed_assets',
+        'invoice_templates',
+        'journals',
+        'journal_lines',
+        'recon_items',
+        'users',
+        'vendors'
+    ] LOOP
+        IF to_regclass(t) IS NOT NULL THEN
+            EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', t || '_seq');
+            EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 50)', t || '_seq', t);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        END IF;
+    END LOOP;
+END $$;
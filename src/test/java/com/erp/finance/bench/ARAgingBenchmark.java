@@ -0,0 +1,80 @@
+package com.erp.finance.bench;
+
+import com.erp.finance.repository.ARInvoiceRepository;
+import com.erp.finance.repository.CustomerRepository;
+import com.erp.finance.service.ARAgingIndex;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Times {@link ARAgingIndex} over synthetic open invoices: a full rebuild (what the nightly
+ * pass does once the query has returned) and an aging report over every customer. The
+ * repositories are stubs that return the generated rows, so no database is needed:
+ *
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *       com.erp.finance.bench.ARAgingBenchmark [invoices] [customers]
+ *
+ * Prints the best time of each after warm-up rounds.
+ */
+public final class ARAgingBenchmark {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private ARAgingBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int invoiceCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int customerCount = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(invoiceCount);
+        for (int i = 0; i < invoiceCount; i++) {
+            // due from 60 days ahead to 180 days ago, so every bucket is populated
+            rows.add(new Object[]{(long) i + 1, (long) random.nextInt(customerCount) + 1,
+                    today.minusDays(random.nextInt(240) - 60), BigDecimal.valueOf(random.nextInt(10_000_000), 2)});
+        }
+
+        ARInvoiceRepository invoices = stub(ARInvoiceRepository.class, "findOpenBalances", rows);
+        CustomerRepository customers = stub(CustomerRepository.class, "findAllById", List.of());
+        ARAgingIndex index = new ARAgingIndex(invoices, customers, true);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            index.rebuild();
+            index.report(null);
+        }
+        measure("rebuild", () -> {
+            index.rebuild();
+            return index.stats().get("openInvoices");
+        });
+        measure("report", () -> ((List<?>) index.report(null).get("customers")).size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, String method, Object result) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, called, callArgs) -> {
+            if (called.getName().equals(method)) return result;
+            if (called.getName().equals("toString")) return type.getSimpleName() + " stub";
+            throw new UnsupportedOperationException(called.getName());
+        });
+    }
+
+    private static void measure(String name, Supplier<Object> run) {
+        long bestNanos = Long.MAX_VALUE;
+        Object sink = null;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink = run.get();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        System.out.printf("%-8s %8.2f ms (%s)%n", name, bestNanos / 1e6, sink);
+    }
+}
@@ -0,0 +1,124 @@
+package com.erp.finance.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares authenticated GET throughput with HTTP Basic (BCrypt on every request) and with
+ * a bearer token from /api/auth/login, over real HTTP against this instance, then shuts
+ * the application down. It lives in the test source set, so it never ships:
+ *
+ *   mvn test-compile spring-boot:run -Dspring-boot.run.useTestClasspath=true \
+ *       -Dspring-boot.run.profiles=postgres,auth-bench
+ *
+ * Requests go to /api/auth/me, which does no database work, so the difference is the
+ * authentication cost.
+ */
+@Component
+@Profile("auth-bench")
+public class AuthThroughputBenchmark implements CommandLineRunner {
+    private final ConfigurableApplicationContext context;
+    private final Environment environment;
+    private final ObjectMapper objectMapper;
+    private final String username;
+    private final String password;
+    private final int requests;
+    private final int threads;
+
+    public AuthThroughputBenchmark(ConfigurableApplicationContext context,
+                                   Environment environment,
+                                   ObjectMapper objectMapper,
+                                   @Value("${erp.bench.auth.username:viewer}") String username,
+                                   @Value("${erp.bench.auth.password:viewer123}") String password,
+                                   @Value("${erp.bench.auth.requests:2000}") int requests,
+                                   @Value("${erp.bench.auth.threads:4}") int threads) {
+        this.context = context;
+        this.environment = environment;
+        this.objectMapper = objectMapper;
+        this.username = username;
+        this.password = password;
+        this.requests = requests;
+        this.threads = threads;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        String base = "http://localhost:" + environment.getProperty("local.server.port", "8080");
+        HttpClient client = HttpClient.newHttpClient();
+
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        Map.of("username", username, "password", password))))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with status " + login.statusCode());
+        }
+        JsonNode body = objectMapper.readTree(login.body());
+        String bearer = "Bearer " + body.get("token").asText();
+        String basic = "Basic " + Base64.getEncoder().encodeToString(
+                (username + ":" + password).getBytes(StandardCharsets.UTF_8));
+
+        // warm-up
+        measure(client, base, basic, Math.max(1, requests / 10));
+        measure(client, base, bearer, Math.max(1, requests / 10));
+
+        double basicRate = measure(client, base, basic, requests);
+        double bearerRate = measure(client, base, bearer, requests);
+        System.out.printf("Auth throughput benchmark: %d GET /api/auth/me over %d threads%n", requests, threads);
+        System.out.printf("  HTTP Basic (BCrypt): %.1f requests/s%n", basicRate);
+        System.out.printf("  Bearer token:        %.1f requests/s (%.1fx)%n", bearerRate, bearerRate / basicRate);
+
+        context.close();
+    }
+
+    private double measure(HttpClient client, String base, String authorization, int count) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/auth/me"))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+        AtomicLong remaining = new AtomicLong(count);
+        AtomicLong failures = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) failures.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        pool.shutdown();
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " requests failed");
+        }
+        return count / seconds;
+    }
+}
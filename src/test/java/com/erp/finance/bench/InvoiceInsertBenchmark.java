@@ -0,0 +1,95 @@
+package com.erp.finance.bench;
+
+import com.erp.finance.domain.ARInvoice;
+import com.erp.finance.domain.ARInvoiceItem;
+import com.erp.finance.domain.Customer;
+import com.erp.finance.service.ARService;
+import com.erp.finance.web.ARInvoiceDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures invoice-with-items creation throughput, then shuts the application down.
+ * It lives in the test source set, so it never ships; run it against a scratch database:
+ *
+ *   mvn test-compile spring-boot:run -Dspring-boot.run.useTestClasspath=true \
+ *       -Dspring-boot.run.profiles=postgres,bench
+ *
+ * Adding -Dspring-boot.run.arguments=--spring.jpa.properties.hibernate.jdbc.batch_size=1
+ * turns JDBC batching off, which gives the figure to compare against.
+ *
+ * Rows counted per invoice: the invoice, its items, the AR journal and its two lines.
+ */
+@Component
+@Profile("bench")
+public class InvoiceInsertBenchmark implements CommandLineRunner {
+    private final ARService arService;
+    private final ConfigurableApplicationContext context;
+    private final int invoices;
+    private final int itemsPerInvoice;
+    private final int warmup;
+
+    public InvoiceInsertBenchmark(ARService arService,
+                                  ConfigurableApplicationContext context,
+                                  @Value("${erp.bench.invoices:2000}") int invoices,
+                                  @Value("${erp.bench.items-per-invoice:10}") int itemsPerInvoice,
+                                  @Value("${erp.bench.warmup:200}") int warmup) {
+        this.arService = arService;
+        this.context = context;
+        this.invoices = invoices;
+        this.itemsPerInvoice = itemsPerInvoice;
+        this.warmup = warmup;
+    }
+
+    @Override
+    public void run(String... args) {
+        Customer customer = new Customer();
+        customer.setName("Benchmark Customer " + System.currentTimeMillis());
+        customer = arService.createCustomer(customer);
+        String prefix = "BENCH-" + System.currentTimeMillis() + "-";
+
+        for (int i = 0; i < warmup; i++) {
+            arService.createInvoiceWithItems(newInvoice(customer.getId(), prefix + "W" + i));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < invoices; i++) {
+            arService.createInvoiceWithItems(newInvoice(customer.getId(), prefix + i));
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        long rows = (long) invoices * (1 + itemsPerInvoice + 3);
+        System.out.printf("Invoice insert benchmark: %d invoices x %d items in %.2f s%n", invoices, itemsPerInvoice, seconds);
+        System.out.printf("  %.1f invoices/s, %.1f rows/s%n", invoices / seconds, rows / seconds);
+
+        context.close();
+    }
+
+    private ARInvoiceDTO newInvoice(Long customerId, String invoiceNumber) {
+        ARInvoice invoice = new ARInvoice();
+        invoice.setCustomerId(customerId);
+        invoice.setInvoiceNumber(invoiceNumber);
+        invoice.setInvoiceDate(LocalDate.now());
+        invoice.setDueDate(LocalDate.now().plusDays(30));
+        invoice.setDescription("Benchmark invoice");
+
+        List<ARInvoiceItem> items = new ArrayList<>(itemsPerInvoice);
+        for (int i = 0; i < itemsPerInvoice; i++) {
+            ARInvoiceItem item = new ARInvoiceItem();
+            item.setDescription("Item " + i);
+            item.setQuantity(BigDecimal.valueOf(i + 1));
+            item.setUnitPrice(new BigDecimal("9.99"));
+            item.setItemType("PRODUCT");
+            items.add(item);
+        }
+        return new ARInvoiceDTO(invoice, items);
+    }
+}
@@ -0,0 +1,102 @@
+package com.erp.finance.bench;
+
+import com.erp.finance.service.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of netting per-account debit/credit totals, as the report services do with
+ * the grouped query rows: plain BigDecimal, a Money per row, and {@link Money#net} in long
+ * cents. The total* variants sum every row's net into one running total instead, as the
+ * report totals do. Each score is per row. Needs no Spring context or database:
+ *
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/classes:target/test-classes:$(cat target/cp.txt) \
+ *       org.openjdk.jmh.Main MoneySumBenchmark -prof gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(MoneySumBenchmark.ROWS)
+public class MoneySumBenchmark {
+    static final int ROWS = 10_000;
+
+    // "cents": numeric(19,2) totals as they come back from the database;
+    // "mixed": one row in 100 carries a sub-cent amount and takes the BigDecimal fallback
+    @Param({"cents", "mixed"})
+    public String amounts;
+
+    private BigDecimal[] debits;
+    private BigDecimal[] credits;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        debits = new BigDecimal[ROWS];
+        credits = new BigDecimal[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            debits[i] = BigDecimal.valueOf(random.nextInt(1_000_000_000), 2);
+            credits[i] = BigDecimal.valueOf(random.nextInt(1_000_000_000), 2);
+            if (amounts.equals("mixed") && i % 100 == 0) {
+                debits[i] = BigDecimal.valueOf(random.nextInt(1_000_000_000), 4);
+            }
+        }
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(debits[i].subtract(credits[i]));
+        }
+    }
+
+    @Benchmark
+    public void moneyPerRow(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(Money.of(debits[i]).subtract(credits[i]).toBigDecimal());
+        }
+    }
+
+    @Benchmark
+    public void netInCents(Blackhole blackhole) {
+        for (int i = 0; i < ROWS; i++) {
+            blackhole.consume(Money.net(debits[i], credits[i]));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal totalBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ROWS; i++) {
+            total = total.add(debits[i].subtract(credits[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal totalMoney() {
+        Money total = Money.zero();
+        for (int i = 0; i < ROWS; i++) {
+            total.add(debits[i]).subtract(credits[i]);
+        }
+        return total.toBigDecimal();
+    }
+}